@@ -8,8 +8,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
 public class WebServer implements HttpHandler {
@@ -20,6 +23,8 @@ public class WebServer implements HttpHandler {
     public static final int UNAUTHORIZED = 401;
     public static final int NOT_FOUND = 404;
     public static final int OK = 200;
+    public static final int PARTIAL_CONTENT = 206;
+    public static final int RANGE_NOT_SATISFIABLE = 416;
     public static final int NOT_IMPLEMENTED = 501;
 
     static {
@@ -61,23 +66,33 @@ public class WebServer implements HttpHandler {
                 return statusCode;
             }
             case "GET": {
-                byte[] file = storage.get(path);
+                byte[] file = path.endsWith("/") ? listDirectory(path) : storage.get(path);
                 if (file == null) {
                     exchange.sendResponseHeaders(NOT_FOUND, -1);
                     return NOT_FOUND;
                 }
-                String type = getType(path);
+                String type = path.endsWith("/") ? "text/html" : getType(path);
                 exchange.getResponseHeaders().set("Content-Type", type);
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if (range != null && range.startsWith("bytes=")) {
+                    return sendRange(exchange, file, range.substring("bytes=".length()));
+                }
                 exchange.sendResponseHeaders(OK, file.length);
                 try (OutputStream os = exchange.getResponseBody()) {
                     os.write(file);
                 }
+                return OK;
             }
             case "PUT": {
                 try (InputStream is = exchange.getRequestBody()) {
-                    storage.put(path, is.readAllBytes());
+                    byte[] content = is.readAllBytes();
+                    // a repository which does not keep uploaded checksums
+                    if (!path.startsWith("/no-checksums/") || !path.endsWith(".sha1") && !path.endsWith(".md5")) {
+                        storage.put(path, content);
+                    }
                     exchange.sendResponseHeaders(OK, -1);
                 }
+                return OK;
             }
             default:
                 exchange.sendResponseHeaders(NOT_IMPLEMENTED, -1);
@@ -85,6 +100,46 @@ public class WebServer implements HttpHandler {
         }
     }
 
+    /** A single range of the file, e.g. 0-99 */
+    private int sendRange(HttpExchange exchange, byte[] file, String range) throws IOException {
+        int dash = range.indexOf('-');
+        int first = Integer.parseInt(range.substring(0, dash));
+        int last = Math.min(file.length - 1, Integer.parseInt(range.substring(dash + 1)));
+        if (first > last) {
+            exchange.sendResponseHeaders(RANGE_NOT_SATISFIABLE, -1);
+            return RANGE_NOT_SATISFIABLE;
+        }
+        exchange.getResponseHeaders().set("Content-Range", "bytes " + first + "-" + last + "/" + file.length);
+        exchange.sendResponseHeaders(PARTIAL_CONTENT, last - first + 1);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(file, first, last - first + 1);
+        }
+        return PARTIAL_CONTENT;
+    }
+
+    /** An html index of the files in a directory, in the style of repository managers */
+    private byte[] listDirectory(String directory) {
+        Set<String> names = new TreeSet<>();
+        for (String path : storage.keySet()) {
+            if (path.startsWith(directory)) {
+                String name = path.substring(directory.length());
+                int slash = name.indexOf('/');
+                names.add(slash < 0 ? name : name.substring(0, slash + 1));
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        StringBuilder html = new StringBuilder("<html><head><title>Index of ")
+            .append(directory)
+            .append("</title></head><body><pre><a href=\"../\">../</a>\n");
+        for (String name : names) {
+            html.append("<a href=\"").append(name).append("\" title=\"").append(name).append("\">")
+                .append(name).append("</a>\n");
+        }
+        return html.append("</pre></body></html>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     private static String authorize(HttpExchange exchange) throws IOException {
         String uri = exchange.getRequestURI().getPath();
         if (uri.startsWith("/auth")) {
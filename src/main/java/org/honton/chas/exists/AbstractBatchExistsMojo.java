@@ -0,0 +1,237 @@
+package org.honton.chas.exists;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.maven.configuration.BeanConfigurator;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
+
+/**
+ * Check that many http resources exist. All resources are checked concurrently, using the
+ * credentials and proxy of the settings, so the goal takes about as long as the slowest request.
+ *
+ * @since 0.16.0
+ */
+public abstract class AbstractBatchExistsMojo extends AbstractMojo implements Contextualizable {
+
+  /** The property to set if every resource exists. */
+  @Parameter(property = "exists.property")
+  private String property;
+
+  /** Set a user property rather than a project property. */
+  @Parameter(property = "exists.userProperty", defaultValue = "false")
+  private boolean userProperty;
+
+  /** Fail the build if any resource does not exist. */
+  @Parameter(property = "exists.failIfNotExists", defaultValue = "false")
+  private boolean failIfNotExists;
+
+  /** Skip executing this plugin. */
+  @Parameter(property = "exists.skip", defaultValue = "false")
+  private boolean skip;
+
+  /**
+   * The maximum number of concurrent requests to a single host. Requests start at a lower limit
+   * which grows while the host keeps up and is halved when the host throttles requests.
+   */
+  @Parameter(property = "exists.maxConcurrency", defaultValue = "64")
+  private int maxConcurrency;
+
+  /** The number of times a throttled request is retried. */
+  @Parameter(property = "exists.throttleRetries", defaultValue = "3")
+  private int throttleRetries;
+
+  /**
+   * The milliseconds to pause requests to a throttling host before the first retry. The pause
+   * doubles for each further retry.
+   */
+  @Parameter(property = "exists.throttleBackoff", defaultValue = "1000")
+  private long throttleBackoff;
+
+  /** The number of consecutive connection failures which stop requests to a host. */
+  @Parameter(property = "exists.circuitBreakerThreshold", defaultValue = "3")
+  private int circuitBreakerThreshold;
+
+  /** The milliseconds to wait before probing a host which stopped accepting requests. */
+  @Parameter(property = "exists.circuitBreakerProbeInterval", defaultValue = "30000")
+  private long circuitBreakerProbeInterval;
+
+  /**
+   * The URL of an existence cache service shared by many builds. All resources are looked up in the
+   * service with one request before querying the repositories, and the results are published to the
+   * service afterward.
+   */
+  @Parameter(property = "exists.cacheService")
+  private String cacheService;
+
+  /**
+   * The seconds that results published to the cache service stay valid. Existing release artifacts
+   * are immutable, so their results stay valid forever.
+   */
+  @Parameter(property = "exists.cacheTtl", defaultValue = "300")
+  private long cacheTtl;
+
+  /**
+   * Answer the existence of a release artifact which an earlier build in the same JVM, such as the
+   * maven daemon, found, without a request. An artifact deleted from the repository goes unnoticed
+   * until the JVM exits.
+   */
+  @Parameter(property = "exists.reuseReleases", defaultValue = "false")
+  private boolean reuseReleases;
+
+  @Parameter(defaultValue = "${project}", required = true, readonly = true)
+  private MavenProject mavenProject;
+
+  @Parameter(defaultValue = "${session}", required = true, readonly = true)
+  private MavenSession session;
+
+  @Parameter(defaultValue = "${settings}", required = true, readonly = true)
+  private Settings settings;
+
+  @Component(role = SecDispatcher.class, hint = "default")
+  private SecDispatcher securityDispatcher;
+
+  @Component(role = BeanConfigurator.class, hint = "default")
+  private BeanConfigurator beanConfigurator;
+
+  private PlexusContainer container;
+
+  @Override
+  public void contextualize(Context context) throws ContextException {
+    container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
+  }
+
+  protected MavenProject getProject() {
+    return mavenProject;
+  }
+
+  protected MavenSession getSession() {
+    return session;
+  }
+
+  /**
+   * The resources to check.
+   *
+   * @return The url, optional serverId, and optional property of each resource
+   */
+  protected abstract List<RepositoryTarget> getTargets() throws Exception;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    if (skip) {
+      getLog().info("skipping exists execution");
+      return;
+    }
+    try {
+      checkTargets(getTargets());
+    } catch (MojoExecutionException | MojoFailureException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    } finally {
+      AdaptiveLimiter.logThrottled(session, getLog());
+    }
+  }
+
+  private void checkTargets(List<RepositoryTarget> targets) throws Exception {
+    RemoteOptions options =
+        new RemoteOptions(
+            session,
+            getLog(),
+            WagonFactory.get(session, settings, securityDispatcher, beanConfigurator, container),
+            maxConcurrency,
+            throttleRetries,
+            throttleBackoff,
+            circuitBreakerThreshold,
+            circuitBreakerProbeInterval,
+            // existence checks receive no content
+            0);
+
+    // results depend upon the credentials and proxy used to find them
+    List<String> keys = new ArrayList<>();
+    Map<String, String> urls = new HashMap<>();
+    for (RepositoryTarget target : targets) {
+      String key = checker(options, target).cacheKey() + name(target);
+      keys.add(key);
+      urls.put(key, target.getUrl());
+    }
+    SharedResults shared = new SharedResults(getLog(), reuseReleases, cacheService, cacheTtl);
+    Map<String, Boolean> known = shared.lookup(urls);
+
+    // the hosts' limiters bound the requests actually in flight
+    List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+    for (int i = 0; i < targets.size(); ++i) {
+      Boolean exists = known.get(keys.get(i));
+      checks.add(
+          exists != null
+              ? CompletableFuture.completedFuture(exists)
+              : checker(options, targets.get(i)).exists(name(targets.get(i))));
+    }
+
+    Map<String, Boolean> results = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (int i = 0; i < checks.size(); ++i) {
+      RepositoryTarget target = targets.get(i);
+      boolean exists = CheckExecutor.getResult(checks.get(i));
+      if (!known.containsKey(keys.get(i))) {
+        results.put(keys.get(i), exists);
+      }
+      if (exists) {
+        getLog().debug(target.getUrl() + " exists");
+        if (target.getProperty() != null) {
+          setProperty(target.getProperty());
+        }
+      } else {
+        getLog().warn(target.getUrl() + " does not exist");
+        missing.add(target.getUrl());
+      }
+    }
+    shared.publish(results);
+
+    getLog().info((targets.size() - missing.size()) + " of " + targets.size() + " resources exist");
+    if (!missing.isEmpty()) {
+      if (failIfNotExists) {
+        throw new MojoFailureException(missing.size() + " do not exist: " + missing);
+      }
+    } else if (property != null) {
+      setProperty(property);
+    }
+  }
+
+  private static RemoteChecker checker(RemoteOptions options, RepositoryTarget target) {
+    String url = target.getUrl();
+    return new RemoteChecker(options, target.getServerId(), url.substring(0, slash(url)));
+  }
+
+  private static String name(RepositoryTarget target) {
+    String url = target.getUrl();
+    return url.substring(slash(url) + 1);
+  }
+
+  private static int slash(String url) {
+    int slash = url.lastIndexOf('/');
+    if (slash < 0 || slash == url.length() - 1) {
+      throw new IllegalArgumentException(url + " does not name a resource");
+    }
+    return slash;
+  }
+
+  private void setProperty(String propertyName) {
+    ProjectProperties.set(getLog(), session, mavenProject, userProperty, propertyName, "true");
+  }
+}
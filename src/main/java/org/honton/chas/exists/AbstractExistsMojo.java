@@ -1,6 +1,7 @@
 package org.honton.chas.exists;
 
-import java.io.StringReader;
+import java.io.File;
+import java.io.InputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -12,6 +13,7 @@ import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -29,6 +31,9 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
   @Parameter(defaultValue = "${session}", required = true, readonly = true)
   private MavenSession session;
 
+  @Parameter(defaultValue = "${mojoExecution}", required = true, readonly = true)
+  private MojoExecution mojoExecution;
+
   /**
    * The project Group:Artifact:[:Packaging]:Version to compare. Defaults to the current project's
    * GAPV.
@@ -125,12 +130,79 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
    */
   @Parameter private Map<String, String> packageExtensions;
 
+  /**
+   * An index written by the index goal. When set, the existence and checksum of release artifacts
+   * are read from the index instead of the repository, provided the index was written from the
+   * repository being checked. Other repositories are queried.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.indexFile")
+  private File indexFile;
+
+  /**
+   * When cmpChecksum is set, compare the sizes and a few sampled regions of the build artifact and
+   * the repository artifact instead of checksums of their whole content: the head, the tail, and
+   * regions evenly spaced between. A change which alters neither the size nor any sampled region
+   * goes unnoticed; schedule builds with fullCompare to catch those. Remote regions are fetched
+   * with HTTP range requests, sending the server's username and password as Basic credentials and
+   * the httpHeaders of its configuration; other server configuration is not applied. When the
+   * repository cannot supply the regions, checksums are compared.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.sampledCompare", defaultValue = "false")
+  private boolean sampledCompare;
+
+  /**
+   * The number of regions sampled by sampledCompare, from 2 to 1024. Artifacts no longer than all
+   * regions together are compared completely.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.sampleCount", defaultValue = "8")
+  private int sampleCount;
+
+  /**
+   * The length in bytes of each region sampled by sampledCompare. The length is reduced so that all
+   * regions together are at most 64 MiB.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.sampleSize", defaultValue = "65536")
+  private int sampleSize;
+
+  /**
+   * Compare checksums of the whole content even when sampledCompare is set, e.g. in a scheduled
+   * verification build.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.fullCompare", defaultValue = "false")
+  private boolean fullCompare;
+
+  private static final int METADATA_CACHE_SIZE = 1024;
+
   protected GAV gav;
 
+  private RepositoryIndex openedIndex;
+
+  // the opened index, if it was written from the repository being checked
+  private RepositoryIndex index;
+
   static Path getPath(String first, String... more) {
     return FileSystems.getDefault().getPath(first, more);
   }
 
+  protected MavenSession getSession() {
+    return session;
+  }
+
+  /** The phase of this execution; a repository may change between phases, e.g. after deploy. */
+  protected String getLifecyclePhase() {
+    return mojoExecution.getLifecyclePhase();
+  }
+
   protected abstract String getArtifactChecksum(String s) throws Exception;
 
   protected abstract String getPropertyName();
@@ -148,35 +220,17 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
     }
 
     try {
-      gav = new GAV(project, mavenProject.getPackaging(), classifier, packageExtensions);
+      gav = newGAV();
       boolean snapshot = isSnapshot();
       if (skipIfSnapshot && snapshot) {
         getLog().debug("skipping -SNAPSHOT");
         return;
       }
 
-      String path;
-      if (snapshot) {
-        path = snapshotPath();
-        if (path == null) {
-          checkFailConditions(false);
-          return;
-        }
-      } else {
-        path = gav.artifactLocation();
-      }
-
-      boolean exists = checkArtifactExists(path);
-      checkFailConditions(exists);
-      if (!exists) {
-        return;
-      }
-
-      if (cmpChecksum && !checksumMatches(path)) {
-        return;
+      if (!snapshot && indexFile != null) {
+        openedIndex = RepositoryIndex.open(indexFile.toPath());
       }
-
-      setProperty(getPropertyName(), "true");
+      checkRepositories();
     } catch (MojoExecutionException | MojoFailureException e) {
       throw e;
     } catch (Exception e) {
@@ -184,14 +238,58 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
     }
   }
 
-  private void setProperty(String propertyName, String value) {
-    if (userProperty) {
-      getLog().info("setting user property " + propertyName + '=' + value);
-      session.getUserProperties().setProperty(propertyName, value);
+  private GAV newGAV() throws MojoFailureException {
+    try {
+      return new GAV(project, mavenProject.getPackaging(), classifier, packageExtensions);
+    } catch (IllegalArgumentException e) {
+      throw new MojoFailureException("Project property " + e.getMessage(), e);
+    }
+  }
+
+  /** Check the repository, setting the property if it has the same artifact. */
+  protected void checkRepositories() throws Exception {
+    if (isSame()) {
+      setProperty(getPropertyName(), "true");
+    }
+  }
+
+  /**
+   * Check whether the repository has the artifact.
+   *
+   * @return true if the artifact exists and, when cmpChecksum is set, its checksum matches
+   */
+  protected boolean isSame() throws Exception {
+    index = applicableIndex();
+    String path;
+    if (isSnapshot()) {
+      path = snapshotPath();
+      if (path == null) {
+        checkFailConditions(false);
+        return false;
+      }
     } else {
-      getLog().info("setting " + propertyName + '=' + value);
-      mavenProject.getProperties().setProperty(propertyName, value);
+      path = gav.artifactLocation();
     }
+
+    boolean exists = artifactExists(path);
+    checkFailConditions(exists);
+    return exists && (!cmpChecksum || checksumMatches(path));
+  }
+
+  private RepositoryIndex applicableIndex() throws Exception {
+    if (openedIndex == null) {
+      return null;
+    }
+    String location = getRepositoryLocation();
+    if (openedIndex.isOf(location)) {
+      return openedIndex;
+    }
+    getLog().info(indexFile + " indexes " + openedIndex.getRepository() + ", not " + location);
+    return null;
+  }
+
+  protected void setProperty(String propertyName, String value) {
+    ProjectProperties.set(getLog(), session, mavenProject, userProperty, propertyName, value);
   }
 
   void setLastSnapshotTime(String updated) {
@@ -214,17 +312,23 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
     }
   }
 
+  protected boolean isCmpChecksum() {
+    return cmpChecksum;
+  }
+
+  protected boolean isSampledCompare() {
+    return cmpChecksum && sampledCompare && !fullCompare && index == null;
+  }
+
   protected boolean isSnapshot() {
     return gav.version.endsWith("-SNAPSHOT");
   }
 
-  private String snapshotPath() {
+  private String snapshotPath() throws MojoExecutionException {
     try {
       String directory = gav.artifactDirectory();
 
-      Metadata metadata =
-          new MetadataXpp3Reader().read(new StringReader(getMavenMetadata(directory)));
-      Versioning versioning = metadata.getVersioning();
+      Versioning versioning = getVersioning(directory);
 
       for (SnapshotVersion version : versioning.getSnapshotVersions()) {
         if (gav.extension.equals(version.getExtension())) {
@@ -233,33 +337,117 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
           return getVersionedPath(version);
         }
       }
+    } catch (MojoExecutionException e) {
+      throw e;
     } catch (Exception e) {
       getLog().debug("Could not fetch/read metadata, assuming no snapshot " + e.getMessage());
     }
     return null;
   }
 
+  // executions sharing a version directory parse its metadata once per lifecycle phase
+  private Versioning getVersioning(String directory) throws Exception {
+    LruCache<String, Versioning> cache =
+        SessionState.get(session, Versioning.class, () -> new LruCache<>(METADATA_CACHE_SIZE));
+    String key = getRepositoryLocation() + '/' + directory + ' ' + getLifecyclePhase();
+    Versioning versioning = cache.get(key);
+    if (versioning == null) {
+      versioning = getMavenMetadata(directory).getVersioning();
+      cache.put(key, versioning);
+    } else {
+      getLog().debug("Using cached metadata of " + directory);
+    }
+    return versioning;
+  }
+
   protected abstract String getVersionedPath(SnapshotVersion version);
 
-  protected abstract String getMavenMetadata(String path) throws Exception;
+  /** The repository being checked, distinguishing cached metadata of different repositories. */
+  protected abstract String getRepositoryLocation() throws Exception;
+
+  protected abstract Metadata getMavenMetadata(String path) throws Exception;
+
+  /** Parse maven-metadata.xml content, recording a flight recorder event. */
+  protected static Metadata readMetadata(String location, InputStream content) throws Exception {
+    MetadataParseEvent event = new MetadataParseEvent();
+    event.begin();
+    Metadata metadata = new MetadataXpp3Reader().read(content);
+    event.end();
+    if (event.shouldCommit()) {
+      Versioning versioning = metadata.getVersioning();
+      event.location = location;
+      event.snapshotVersions = versioning == null ? 0 : versioning.getSnapshotVersions().size();
+      event.commit();
+    }
+    return metadata;
+  }
 
   protected abstract boolean checkArtifactExists(String path) throws Exception;
 
+  private boolean artifactExists(String path) throws Exception {
+    if (index == null) {
+      return checkArtifactExists(path);
+    }
+    getLog().info("Checking for artifact " + path + " in " + indexFile);
+    return index.contains(path);
+  }
+
   private boolean checksumMatches(String path) throws Exception {
-    String prior = getArtifactChecksum(path);
+    if (isSampledCompare()) {
+      Path buildPath = getBuildPath();
+      Boolean sampled =
+          samplesMatch(path, buildPath, new SampledComparison(sampleCount, sampleSize));
+      if (sampled != null) {
+        return reportMatch(sampled, "samples of build artifact differ from " + path);
+      }
+      getLog().info("Samples of " + path + " are not available, comparing checksums");
+    }
+    String prior = index != null ? index.checksum(path) : getArtifactChecksum(path);
+    if (prior == null) {
+      // the repository has no checksum of the artifact; compare the content itself
+      return reportMatch(
+          contentMatches(path, getBuildPath()), "build artifact differs from " + path);
+    }
     String build = getBuildChecksum();
-    boolean matches = build.equalsIgnoreCase(prior);
+    return reportMatch(
+        build.equalsIgnoreCase(prior),
+        "buildChecksum(" + build + ") != priorChecksum(" + prior + ")");
+  }
+
+  private boolean reportMatch(boolean matches, String msg) throws MojoFailureException {
     if (!matches) {
       getLog().info(project + " checksum does not match");
       if (failIfNotMatch) {
-        String msg = "buildChecksum(" + build + ") != priorChecksum(" + prior + ")";
         throw new MojoFailureException(msg);
       }
     }
     return matches;
   }
 
-  private String getBuildChecksum() throws Exception {
+  /**
+   * Compare the build artifact with a repository artifact which has no checksum.
+   *
+   * @param path The repository path of the artifact
+   * @param buildPath The build artifact
+   */
+  protected boolean contentMatches(String path, Path buildPath) throws Exception {
+    throw new MojoExecutionException("The repository has no checksum of " + path);
+  }
+
+  /**
+   * Compare the size and sampled regions of the build artifact with a repository artifact.
+   *
+   * @param path The repository path of the artifact
+   * @param buildPath The build artifact
+   * @param comparison Chooses and compares the regions
+   * @return Whether the samples match, or null if the repository cannot supply them
+   */
+  protected Boolean samplesMatch(String path, Path buildPath, SampledComparison comparison)
+      throws Exception {
+    return null;
+  }
+
+  private Path getBuildPath() throws MojoFailureException {
     Artifact mavenArtifact = mavenProject.getArtifact();
     Path path;
     if ("pom".equals(mavenArtifact.getType())) {
@@ -267,12 +455,24 @@ public abstract class AbstractExistsMojo extends AbstractMojo {
     } else {
       path = getPath(mavenProject.getBuild().getDirectory(), artifact);
     }
-    if (Files.exists(path)) {
-      getLog().debug("Calculating checksum for " + path);
-      CheckSum signer = new CheckSum();
-      return signer.getChecksum(path);
-    } else {
+    if (!Files.exists(path)) {
       throw new MojoFailureException("The project artifact " + path + " has not been created.");
     }
+    return path;
+  }
+
+  private String getBuildChecksum() throws Exception {
+    Path path = getBuildPath();
+    BuildChecksums buildChecksums = BuildChecksums.get(mavenProject);
+    if (buildChecksums != null) {
+      String checksum = buildChecksums.get(path, CheckSum.SHA_1);
+      if (checksum != null) {
+        getLog().debug("Using checksum calculated during package for " + path);
+        return checksum;
+      }
+    }
+    getLog().debug("Calculating checksum for " + path);
+    CheckSum signer = new CheckSum();
+    return signer.getChecksum(path);
   }
 }
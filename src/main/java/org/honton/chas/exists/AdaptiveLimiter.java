@@ -0,0 +1,211 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Limit the concurrent requests to a repository host. Until the host first throttles, each
+ * successful request raises the limit by one, doubling it every round trip; afterwards the limit
+ * grows additively with each successful request. The limit is halved whenever the host responds
+ * with 429 (Too Many Requests) or 503 (Service Unavailable); throttled requests are retried after
+ * the delay the host asked for in its Retry-After header, or else after a backoff delay.
+ */
+class AdaptiveLimiter {
+  static final int TOO_MANY_REQUESTS = 429;
+  static final int SERVICE_UNAVAILABLE = 503;
+  private static final int INITIAL_LIMIT = 4;
+  // a longer pause would outlast any build, and its nanoseconds could overflow
+  private static final long MAX_PAUSE_MILLIS = TimeUnit.DAYS.toMillis(1);
+  // wagon-http formats "status: 503 Service Unavailable", other providers "status code: 503"
+  private static final Pattern STATUS_CODE = Pattern.compile("status:? (?:code: )?(\\d{3})\\b");
+
+  private final String host;
+  private final int maxLimit;
+  private double limit;
+  private int inFlight;
+  private long resumeAt;
+  private int throttled;
+  private int reported;
+  private boolean slowStart = true;
+
+  AdaptiveLimiter(String host, int maxLimit) {
+    this.host = host;
+    this.maxLimit = Math.max(1, maxLimit);
+    limit = Math.min(INITIAL_LIMIT, this.maxLimit);
+    resumeAt = System.nanoTime();
+  }
+
+  /**
+   * Get the session's limiter for a repository host. Executions configured with different maximum
+   * limits do not share a limiter, so each keeps its own ceiling whatever the order of executions.
+   */
+  static AdaptiveLimiter forHost(MavenSession session, String host, int maxLimit) {
+    return limiters(session)
+        .computeIfAbsent(host + ' ' + maxLimit, k -> new AdaptiveLimiter(host, maxLimit));
+  }
+
+  private static Map<String, AdaptiveLimiter> limiters(MavenSession session) {
+    return SessionState.get(session, AdaptiveLimiter.class, ConcurrentHashMap::new);
+  }
+
+  /**
+   * Log the summary of each of the session's limiters which throttled since its summary was last
+   * logged, so that a throttling host is reported once rather than after every request.
+   */
+  static void logThrottled(MavenSession session, Log log) {
+    for (AdaptiveLimiter limiter : limiters(session).values()) {
+      String summary = limiter.unreportedSummary();
+      if (summary != null) {
+        log.info(summary);
+      }
+    }
+  }
+
+  /**
+   * Extract the HTTP status code from a failed transfer.
+   *
+   * @return The status code, or -1 if not known
+   */
+  static int statusCode(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t.getMessage() != null) {
+        Matcher matcher = STATUS_CODE.matcher(t.getMessage());
+        if (matcher.find()) {
+          return Integer.parseInt(matcher.group(1));
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isThrottled(Throwable failure) {
+    int statusCode = statusCode(failure);
+    return statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE;
+  }
+
+  /**
+   * Extract the delay a throttling host asked for.
+   *
+   * @return The milliseconds to wait, or -1 if not known
+   */
+  static long retryAfterMillis(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof ThrottledException throttledException) {
+        return throttledException.retryAfterMillis;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Invoke a request within the concurrency limit, retrying throttled requests.
+   *
+   * @param request The request to the host
+   * @param retries The number of times a throttled request is retried
+   * @param backoffMillis The delay before the first retry, doubled for each further retry, when the
+   *     host does not ask for a delay
+   */
+  <T> T call(Callable<T> request, int retries, long backoffMillis) throws Exception {
+    for (int attempt = 0; ; ++attempt) {
+      acquire();
+      try {
+        T result = request.call();
+        succeed();
+        return result;
+      } catch (Throwable t) {
+        // any failure, even an Error, must give back its slot
+        if (attempt >= retries || !isThrottled(t)) {
+          release();
+          throw t;
+        }
+        long retryAfter = retryAfterMillis(t);
+        throttle(retryAfter >= 0 ? retryAfter : backoffMillis << attempt);
+      }
+    }
+  }
+
+  synchronized void acquire() throws InterruptedException {
+    for (; ; ) {
+      long delay = resumeAt - System.nanoTime();
+      if (delay > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, delay);
+      } else if (inFlight < (int) limit) {
+        ++inFlight;
+        return;
+      } else {
+        wait();
+      }
+    }
+  }
+
+  /** Release a request that succeeded and raise the limit. */
+  synchronized void succeed() {
+    limit = Math.min(maxLimit, slowStart ? limit + 1 : limit + 1 / limit);
+    release();
+  }
+
+  /** Release a throttled request, halve the limit, and pause requests to the host. */
+  synchronized void throttle(long delayMillis) {
+    ++throttled;
+    slowStart = false;
+    limit = Math.max(1, limit / 2);
+    long delay = TimeUnit.MILLISECONDS.toNanos(Math.min(delayMillis, MAX_PAUSE_MILLIS));
+    resumeAt = Math.max(resumeAt, System.nanoTime() + delay);
+    release();
+  }
+
+  /** Release a request without changing the limit. */
+  synchronized void release() {
+    --inFlight;
+    notifyAll();
+  }
+
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  synchronized int getThrottled() {
+    return throttled;
+  }
+
+  String summary() {
+    return host
+        + " concurrency limit "
+        + getLimit()
+        + ", "
+        + getThrottled()
+        + " throttled requests";
+  }
+
+  // the summary, if the host throttled since the summary was last reported
+  private synchronized String unreportedSummary() {
+    if (throttled == reported) {
+      return null;
+    }
+    reported = throttled;
+    return summary();
+  }
+
+  /**
+   * A response which throttles requests. Its message names the status, as the messages of failed
+   * wagon transfers do.
+   */
+  static class ThrottledException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /** The delay the host asked for, or -1 if it did not ask. */
+    final long retryAfterMillis;
+
+    ThrottledException(String message, long retryAfterMillis) {
+      super(message);
+      this.retryAfterMillis = retryAfterMillis;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package org.honton.chas.exists;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Check which artifacts of a release manifest exist in a remote repository, without starting Maven.
+ * Coordinates are read one per line from a file or standard input, in the format
+ * groupId:artifactId[:packaging]:version; blank lines and lines starting with # are ignored. The
+ * artifacts are checked concurrently with HEAD requests, and the results are written to standard
+ * output as JSON lines, in order of completion:
+ *
+ * <pre>
+ * {"gav":"org.example:lib:jar:1.0","url":"https://repo/org/example/lib/1.0/lib-1.0.jar","exists":true}
+ * {"gav":"org.example:lib","error":"..."}
+ * </pre>
+ *
+ * A snapshot version exists if its version directory has metadata. As in the goals, requests stay
+ * within an adaptive concurrency limit, throttled requests (429, 503) are retried after a backoff,
+ * and repeated connection failures stop further requests. Run with {@code java -jar
+ * exists-maven-plugin.jar [--repository url] [--concurrency n] [--header 'Name: value'] [file]}.
+ * The exit status is 1 if any artifact could not be checked.
+ */
+public class BatchChecker {
+  static final String DEFAULT_REPOSITORY = "https://repo.maven.apache.org/maven2/";
+  static final int DEFAULT_CONCURRENCY = 64;
+  private static final int OK = 200;
+  private static final int NOT_FOUND = 404;
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+  private static final int THROTTLE_RETRIES = 3;
+  private static final long THROTTLE_BACKOFF = 1000;
+  private static final int CIRCUIT_BREAKER_THRESHOLD = 3;
+  private static final long CIRCUIT_BREAKER_PROBE_INTERVAL = 30_000;
+
+  private final HttpClient httpClient;
+  private final URI repository;
+  private final HostGuard guard;
+  private final List<String> headers;
+
+  /**
+   * @param repository The base URL of the repository
+   * @param concurrency The maximum number of requests in flight
+   * @param headers Header names and values, alternating, sent with every request
+   */
+  BatchChecker(String repository, int concurrency, List<String> headers) {
+    this.repository = URI.create(repository.endsWith("/") ? repository : repository + '/');
+    this.headers = headers;
+    String host = this.repository.getScheme() + "://" + this.repository.getRawAuthority();
+    guard =
+        new HostGuard(
+            new AdaptiveLimiter(host, concurrency),
+            new CircuitBreaker(host, CIRCUIT_BREAKER_THRESHOLD, CIRCUIT_BREAKER_PROBE_INTERVAL),
+            THROTTLE_RETRIES,
+            THROTTLE_BACKOFF);
+    httpClient =
+        HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+  }
+
+  public static void main(String[] args) throws IOException {
+    String repository = DEFAULT_REPOSITORY;
+    int concurrency = DEFAULT_CONCURRENCY;
+    List<String> headers = new ArrayList<>();
+    String file = null;
+    for (int i = 0; i < args.length; ++i) {
+      switch (args[i]) {
+        case "--repository" -> repository = args[++i];
+        case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+        case "--header" -> {
+          String header = args[++i];
+          int colon = header.indexOf(':');
+          if (colon < 0) {
+            throw new IllegalArgumentException("--header must be 'Name: value'");
+          }
+          headers.add(header.substring(0, colon).trim());
+          headers.add(header.substring(colon + 1).trim());
+        }
+        default -> file = args[i];
+      }
+    }
+
+    BatchChecker checker = new BatchChecker(repository, concurrency, headers);
+    int errors;
+    try (BufferedReader reader =
+        file == null
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Path.of(file))) {
+      errors = checker.check(reader, System.out);
+    }
+    System.exit(errors == 0 ? 0 : 1);
+  }
+
+  /**
+   * Check every artifact read from the coordinates.
+   *
+   * @param coordinates Lines of groupId:artifactId[:packaging]:version
+   * @param out Receives one JSON line per artifact
+   * @return The number of artifacts which could not be checked
+   */
+  int check(BufferedReader coordinates, PrintStream out) throws IOException {
+    AtomicInteger errors = new AtomicInteger();
+    List<CompletableFuture<Void>> reports = new ArrayList<>();
+    for (String line = coordinates.readLine(); line != null; line = coordinates.readLine()) {
+      String coordinate = line.trim();
+      if (coordinate.isEmpty() || coordinate.startsWith("#")) {
+        continue;
+      }
+      String path;
+      try {
+        path = new GAV(coordinate, null, null, null).existencePath("maven-metadata.xml");
+      } catch (IllegalArgumentException e) {
+        errors.incrementAndGet();
+        print(out, error(coordinate, e.getMessage()));
+        continue;
+      }
+      URI url = repository.resolve(path);
+      // the host's limiter bounds the requests actually in flight
+      reports.add(
+          CheckExecutor.supply(() -> exists(url))
+              .handle(
+                  (exists, failure) -> {
+                    if (failure == null) {
+                      print(out, exists(coordinate, url, exists));
+                    } else {
+                      errors.incrementAndGet();
+                      String message = failure.getMessage();
+                      print(out, error(coordinate, message != null ? message : failure.toString()));
+                    }
+                    return null;
+                  }));
+    }
+    CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0])).join();
+    return errors.get();
+  }
+
+  private boolean exists(URI url) throws Exception {
+    int status =
+        guard.send(httpClient, request(url), HttpResponse.BodyHandlers.discarding()).statusCode();
+    if (status != OK && status != NOT_FOUND) {
+      throw new IOException("HEAD " + url + " failed, status: " + status);
+    }
+    return status == OK;
+  }
+
+  private HttpRequest request(URI url) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(url)
+            .timeout(TIMEOUT)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody());
+    for (int i = 0; i < headers.size(); i += 2) {
+      builder.header(headers.get(i), headers.get(i + 1));
+    }
+    return builder.build();
+  }
+
+  private static synchronized void print(PrintStream out, String line) {
+    out.println(line);
+  }
+
+  private static String exists(String coordinate, URI url, boolean exists) {
+    return "{\"gav\":"
+        + quote(coordinate)
+        + ",\"url\":"
+        + quote(url.toString())
+        + ",\"exists\":"
+        + exists
+        + '}';
+  }
+
+  private static String error(String coordinate, String message) {
+    return "{\"gav\":" + quote(coordinate) + ",\"error\":" + quote(message) + '}';
+  }
+
+  static String quote(String value) {
+    StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> quoted.append("\\\"");
+        case '\\' -> quoted.append("\\\\");
+        case '\n' -> quoted.append("\\n");
+        case '\r' -> quoted.append("\\r");
+        case '\t' -> quoted.append("\\t");
+        default -> {
+          if (c < ' ') {
+            quoted.append(String.format("\\u%04x", (int) c));
+          } else {
+            quoted.append(c);
+          }
+        }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+}
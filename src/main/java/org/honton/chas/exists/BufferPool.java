@@ -0,0 +1,32 @@
+package org.honton.chas.exists;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Pool of fixed size chunks used to buffer repository responses. */
+final class BufferPool {
+  static final int CHUNK_SIZE = 0x2000;
+  private static final int MAX_POOLED = 64;
+  private static final Queue<byte[]> CHUNKS = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger POOLED = new AtomicInteger();
+
+  private BufferPool() {}
+
+  static byte[] acquire() {
+    byte[] chunk = CHUNKS.poll();
+    if (chunk == null) {
+      return new byte[CHUNK_SIZE];
+    }
+    POOLED.decrementAndGet();
+    return chunk;
+  }
+
+  static void release(byte[] chunk) {
+    if (POOLED.incrementAndGet() <= MAX_POOLED) {
+      CHUNKS.offer(chunk);
+    } else {
+      POOLED.decrementAndGet();
+    }
+  }
+}
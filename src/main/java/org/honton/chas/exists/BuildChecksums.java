@@ -0,0 +1,64 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Digests of the project's artifacts calculated by the checksum goal while the artifacts were still
+ * in the page cache. A digest is only used if the artifact's size and modification time have not
+ * changed since it was calculated.
+ */
+class BuildChecksums {
+  private static final String KEY = BuildChecksums.class.getName();
+
+  private final Map<Path, Digests> artifacts = new ConcurrentHashMap<>();
+
+  /** Get the checksums recorded for a project, or null if the checksum goal has not run. */
+  static BuildChecksums get(MavenProject project) {
+    return (BuildChecksums) project.getContextValue(KEY);
+  }
+
+  static synchronized BuildChecksums getOrCreate(MavenProject project) {
+    BuildChecksums checksums = get(project);
+    if (checksums == null) {
+      checksums = new BuildChecksums();
+      project.setContextValue(KEY, checksums);
+    }
+    return checksums;
+  }
+
+  private static Path key(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  void put(Path path, BasicFileAttributes attributes, Map<String, String> checksums) {
+    artifacts.put(
+        key(path), new Digests(attributes.size(), attributes.lastModifiedTime(), checksums));
+  }
+
+  /**
+   * Get the recorded digest of an artifact.
+   *
+   * @return The hex encoded digest, or null if not recorded or the artifact has since changed
+   */
+  String get(Path path, String algorithm) throws IOException {
+    Digests digests = artifacts.get(key(path));
+    if (digests == null) {
+      return null;
+    }
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (attributes.size() != digests.size
+        || !attributes.lastModifiedTime().equals(digests.lastModified)) {
+      return null;
+    }
+    return digests.checksums.get(algorithm);
+  }
+
+  private record Digests(long size, FileTime lastModified, Map<String, String> checksums) {}
+}
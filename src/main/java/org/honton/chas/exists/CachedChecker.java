@@ -0,0 +1,84 @@
+package org.honton.chas.exists;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remembers existing release files in {@link DaemonCache#RELEASES}. Negative results and snapshots
+ * can change, so they are always checked.
+ */
+class CachedChecker implements ExistenceChecker {
+  private final ExistenceChecker checker;
+  private final String keyPrefix;
+
+  CachedChecker(ExistenceChecker checker) {
+    this.checker = checker;
+    // remote results depend upon the credentials and mirrors used to find them
+    keyPrefix =
+        checker instanceof RemoteChecker remote ? remote.cacheKey() : checker.getLocation() + '/';
+  }
+
+  @Override
+  public String getLocation() {
+    return checker.getLocation();
+  }
+
+  @Override
+  public String getMetadataName() {
+    return checker.getMetadataName();
+  }
+
+  /** Whether an earlier check found the release file. */
+  boolean isKnown(String path) {
+    return isKnownRelease(keyPrefix + path);
+  }
+
+  /** Remember that a release file exists. */
+  void remember(String path) {
+    rememberRelease(keyPrefix + path);
+  }
+
+  /**
+   * Whether an earlier check found a release file.
+   *
+   * @param key The settings fingerprint and URL of the file
+   */
+  static boolean isKnownRelease(String key) {
+    return isRelease(key) && DaemonCache.RELEASES.get(key) != null;
+  }
+
+  /**
+   * Remember that a release file exists.
+   *
+   * @param key The settings fingerprint and URL of the file
+   */
+  static void rememberRelease(String key) {
+    if (isRelease(key)) {
+      DaemonCache.RELEASES.put(key, Boolean.TRUE);
+    }
+  }
+
+  static boolean isRelease(String path) {
+    return !path.contains("-SNAPSHOT/") && !path.contains("maven-metadata");
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(String path) {
+    if (isKnown(path)) {
+      return CompletableFuture.completedFuture(Boolean.TRUE);
+    }
+    return checker
+        .exists(path)
+        .thenApply(
+            exists -> {
+              if (exists) {
+                remember(path);
+              }
+              return exists;
+            });
+  }
+
+  @Override
+  public CompletableFuture<String> checksum(String path) {
+    return checker.checksum(path);
+  }
+}
@@ -0,0 +1,65 @@
+package org.honton.chas.exists;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/** Runs the blocking checks of {@link ExistenceChecker} backends on shared daemon threads. */
+final class CheckExecutor {
+
+  // threads waiting for a host's concurrency limit cost little, but are not free
+  private static final int MAX_THREADS = 256;
+
+  private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+  private CheckExecutor() {}
+
+  private static ThreadPoolExecutor createExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            MAX_THREADS,
+            MAX_THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "exists-check");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /** Run a check on the shared threads. */
+  static <T> CompletableFuture<T> supply(Callable<T> check) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    EXECUTOR.execute(
+        () -> {
+          try {
+            result.complete(check.call());
+          } catch (Throwable t) {
+            // an Error must not leave the check forever incomplete
+            result.completeExceptionally(t);
+          }
+        });
+    return result;
+  }
+
+  /** Wait for a check, rethrowing the exception which failed it. */
+  static <T> T getResult(Future<T> check) throws Exception {
+    try {
+      return check.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception exception) {
+        throw exception;
+      }
+      throw e;
+    }
+  }
+}
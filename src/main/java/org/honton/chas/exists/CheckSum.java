@@ -1,6 +1,7 @@
 package org.honton.chas.exists;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
 import java.nio.charset.StandardCharsets;
@@ -9,12 +10,21 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /** Calculate digest for a file. */
 public class CheckSum {
+  static final String SHA_1 = "SHA-1";
   private static final int BUFFER_SIZE = 0x10000;
+  private static final int MAX_CHECKSUM_LENGTH = 128;
   private static final char[] HEX_DIGITS = {
     '0', '1', '2', '3', '4', '5',
     '6', '7', '8', '9', 'a', 'b',
@@ -23,10 +33,39 @@ public class CheckSum {
   private final MessageDigest digest;
 
   public CheckSum() throws NoSuchAlgorithmException {
-    digest = MessageDigest.getInstance("SHA-1");
+    this(SHA_1);
   }
 
-  private static String hexEncode(byte[] bytes) {
+  public CheckSum(String algorithm) throws NoSuchAlgorithmException {
+    digest = MessageDigest.getInstance(algorithm);
+  }
+
+  /**
+   * Calculate several digests of a file while reading the file once.
+   *
+   * @return The hex encoded digests, keyed by algorithm
+   */
+  static Map<String, String> getChecksums(Path path, Collection<String> algorithms)
+      throws IOException, NoSuchAlgorithmException {
+    List<MessageDigest> digests = new ArrayList<>(algorithms.size());
+    for (String algorithm : algorithms) {
+      digests.add(MessageDigest.getInstance(algorithm));
+    }
+    hash(path, digests);
+    Map<String, String> checksums = new LinkedHashMap<>();
+    for (MessageDigest md : digests) {
+      checksums.put(md.getAlgorithm(), hexEncode(md.digest()));
+    }
+    return checksums;
+  }
+
+  /** The sidecar file holding a digest of a file, e.g. artifact.jar.sha1 for SHA-1. */
+  static Path sidecar(Path path, String algorithm) {
+    String extension = algorithm.replace("-", "").toLowerCase(Locale.ROOT);
+    return path.resolveSibling(path.getFileName() + "." + extension);
+  }
+
+  static String hexEncode(byte[] bytes) {
     int cOffset = bytes.length * 2;
     char[] chars = new char[cOffset];
     for (int bOffset = bytes.length; --bOffset >= 0; ) {
@@ -37,11 +76,58 @@ public class CheckSum {
     return new String(chars);
   }
 
+  /**
+   * Read the checksum from the content of a checksum file. Any file name following the hex digest
+   * is ignored.
+   */
+  static String readChecksum(InputStream content) throws IOException {
+    StringBuilder checksum = new StringBuilder();
+    for (int c = content.read(); c >= 0; c = content.read()) {
+      if (!Character.isWhitespace(c)) {
+        if (checksum.length() == MAX_CHECKSUM_LENGTH) {
+          throw new IOException("checksum exceeds " + MAX_CHECKSUM_LENGTH + " characters");
+        }
+        checksum.append((char) c);
+      } else if (checksum.length() > 0) {
+        break;
+      }
+    }
+    return checksum.toString();
+  }
+
   public byte[] getChecksumBytes(Path path) throws IOException {
+    long readMillis = System.currentTimeMillis();
+    DaemonCache.FileStamp stamp = DaemonCache.FileStamp.of(path, digest.getAlgorithm());
+    byte[] cached = DaemonCache.DIGESTS.get(stamp);
+    if (cached != null) {
+      return cached.clone();
+    }
+    digest.reset();
+    hash(path, List.of(digest));
+    byte[] bytes = digest.digest();
+    if (stamp.isSettled(readMillis)) {
+      DaemonCache.DIGESTS.put(stamp, bytes.clone());
+    }
+    return bytes;
+  }
+
+  private static void hash(Path path, List<MessageDigest> digests) throws IOException {
+    FileHashEvent event = new FileHashEvent();
+    event.begin();
+    long start = System.nanoTime();
+    long size;
     try (ByteChannel byteChannel = Files.newByteChannel(path, StandardOpenOption.READ)) {
-      digest.reset();
-      readStream(byteChannel);
-      return digest.digest();
+      size = readStream(byteChannel, digests);
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      long nanos = Math.max(System.nanoTime() - start, 1);
+      event.path = path.toString();
+      event.algorithms =
+          digests.stream().map(MessageDigest::getAlgorithm).collect(Collectors.joining(","));
+      event.size = size;
+      event.throughput = (long) (size * 1e9 / nanos);
+      event.commit();
     }
   }
 
@@ -49,22 +135,32 @@ public class CheckSum {
     return hexEncode(getChecksumBytes(path));
   }
 
-  private void readStream(ByteChannel byteChannel) throws IOException {
+  private static long readStream(ByteChannel byteChannel, List<MessageDigest> digests)
+      throws IOException {
     ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    long size = 0;
     for (; ; ) {
       int bytes = byteChannel.read(byteBuffer);
       if (bytes < 0) {
-        break;
+        return size;
       }
+      size += bytes;
       byteBuffer.flip();
-      digest.update(byteBuffer);
+      for (MessageDigest md : digests) {
+        md.update(byteBuffer.duplicate());
+      }
       byteBuffer.clear();
     }
   }
 
   public void writeChecksum(Path path) throws IOException {
-    Set<String> lines = Collections.singleton(getChecksum(path));
-    Path sibling = path.resolveSibling(path.getFileName() + ".sha1");
+    writeChecksum(path, SHA_1, getChecksum(path));
+  }
+
+  /** Write a digest of a file into its sidecar file. */
+  static void writeChecksum(Path path, String algorithm, String checksum) throws IOException {
+    Set<String> lines = Collections.singleton(checksum);
+    Path sibling = sidecar(path, algorithm);
     Files.write(
         sibling,
         lines,
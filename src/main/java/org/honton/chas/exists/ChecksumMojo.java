@@ -0,0 +1,95 @@
+package org.honton.chas.exists;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Calculate the digests of the project's main and attached artifacts right after packaging, while
+ * the artifacts are still in the page cache. The digests are written as sidecar files and recorded
+ * for the local and remote goals, which then compare checksums without reading the artifacts again.
+ *
+ * @since 0.16.0
+ */
+@Mojo(name = "checksum", defaultPhase = LifecyclePhase.PACKAGE, threadSafe = true)
+public class ChecksumMojo extends AbstractMojo {
+
+  @Parameter(defaultValue = "${project}", required = true, readonly = true)
+  private MavenProject mavenProject;
+
+  /** The digest algorithms to calculate, e.g. SHA-1, SHA-256, SHA-512, or MD5. */
+  @Parameter(property = "exists.algorithms", defaultValue = CheckSum.SHA_1)
+  private List<String> algorithms;
+
+  /** Write each digest into a sidecar file next to the artifact, e.g. artifact.jar.sha1 */
+  @Parameter(property = "exists.writeSidecars", defaultValue = "true")
+  private boolean writeSidecars;
+
+  /** Skip executing this plugin */
+  @Parameter(property = "exists.skip", defaultValue = "false")
+  private boolean skip;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (skip) {
+      getLog().info("skipping exists execution");
+      return;
+    }
+
+    List<String> required = new ArrayList<>(algorithms);
+    if (!required.contains(CheckSum.SHA_1)) {
+      // the local and remote goals compare SHA-1 digests
+      required.add(CheckSum.SHA_1);
+    }
+
+    BuildChecksums buildChecksums = BuildChecksums.getOrCreate(mavenProject);
+    try {
+      for (File file : artifactFiles()) {
+        Path path = file.toPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Map<String, String> checksums = CheckSum.getChecksums(path, required);
+        buildChecksums.put(path, attributes, checksums);
+        for (String algorithm : algorithms) {
+          String checksum = checksums.get(algorithm);
+          getLog().debug(algorithm + " of " + path + " is " + checksum);
+          if (writeSidecars) {
+            CheckSum.writeChecksum(path, algorithm, checksum);
+          }
+        }
+      }
+    } catch (Exception e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+  }
+
+  private List<File> artifactFiles() {
+    List<File> files = new ArrayList<>();
+    Artifact mainArtifact = mavenProject.getArtifact();
+    File mainFile =
+        "pom".equals(mainArtifact.getType()) ? mavenProject.getFile() : mainArtifact.getFile();
+    addFile(files, mainFile);
+    for (Artifact attached : mavenProject.getAttachedArtifacts()) {
+      addFile(files, attached.getFile());
+    }
+    return files;
+  }
+
+  private void addFile(List<File> files, File file) {
+    if (file != null && file.isFile()) {
+      files.add(file);
+    } else {
+      getLog().debug("No artifact file " + file);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Stop sending requests to a repository host after consecutive connection failures. While open,
+ * requests are refused without touching the network. After each probe interval a single request is
+ * let through; if it reaches the host the breaker closes, otherwise it stays open for another
+ * interval.
+ */
+class CircuitBreaker {
+  private static final long CLOSED = Long.MIN_VALUE;
+
+  private final String host;
+  private final int threshold;
+  private final long probeIntervalNanos;
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicLong openedAt = new AtomicLong(CLOSED);
+  private final AtomicBoolean probing = new AtomicBoolean();
+
+  /**
+   * @param host The repository host
+   * @param threshold The consecutive connection failures which open the breaker; 0 to disable
+   * @param probeIntervalMillis The milliseconds between probes of an open breaker
+   */
+  CircuitBreaker(String host, int threshold, long probeIntervalMillis) {
+    this.host = host;
+    this.threshold = threshold;
+    probeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(probeIntervalMillis);
+  }
+
+  /** Get the session's breaker for a repository host. */
+  static CircuitBreaker forHost(
+      MavenSession session, String host, int threshold, long probeIntervalMillis) {
+    Map<String, CircuitBreaker> breakers =
+        SessionState.get(session, CircuitBreaker.class, ConcurrentHashMap::new);
+    return breakers.computeIfAbsent(
+        host, h -> new CircuitBreaker(h, threshold, probeIntervalMillis));
+  }
+
+  /**
+   * Is the failure caused by not reaching the host, as opposed to a response from the host? Only
+   * JDK types are recognised, so the breaker also serves the standalone {@link BatchChecker}; a
+   * wagon that cannot connect is reported with {@link #failConnection()}.
+   */
+  static boolean isConnectionFailure(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof ConnectException
+          || t instanceof NoRouteToHostException
+          || t instanceof SocketTimeoutException
+          || t instanceof UnknownHostException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check that a request may be sent to the host.
+   *
+   * @throws OpenException if the breaker is open
+   */
+  void allowRequest() throws OpenException {
+    long opened = openedAt.get();
+    if (opened != CLOSED
+        && (System.nanoTime() - opened < probeIntervalNanos
+            || !probing.compareAndSet(false, true))) {
+      throw new OpenException(
+          host + " is unavailable after " + threshold + " consecutive connection failures");
+    }
+  }
+
+  /** Record a request that reached the host. */
+  void succeed() {
+    failures.set(0);
+    openedAt.set(CLOSED);
+    probing.set(false);
+  }
+
+  /** Record a failed request; only connection failures count towards opening the breaker. */
+  void fail(Exception failure) {
+    if (isConnectionFailure(failure)) {
+      failConnection();
+    } else {
+      succeed();
+    }
+  }
+
+  /** Record a request which did not reach the host. */
+  void failConnection() {
+    if (probing.getAndSet(false)) {
+      openedAt.set(System.nanoTime());
+    } else if (threshold > 0 && failures.incrementAndGet() >= threshold) {
+      openedAt.compareAndSet(CLOSED, System.nanoTime());
+    }
+  }
+
+  boolean isOpen() {
+    return openedAt.get() != CLOSED;
+  }
+
+  /** A request refused because the breaker is open. */
+  static class OpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    OpenException(String message) {
+      super(message);
+    }
+  }
+}
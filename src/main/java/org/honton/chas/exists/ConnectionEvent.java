@@ -0,0 +1,28 @@
+package org.honton.chas.exists;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for connecting to or disconnecting from a remote repository. */
+@Name("org.honton.chas.exists.Connection")
+@Label("Repository Connection")
+@Category({"Maven", "Exists"})
+@Description("Opening or closing the wagon connection to a remote repository")
+class ConnectionEvent extends jdk.jfr.Event {
+  static final String OPEN = "open";
+  static final String CLOSE = "close";
+
+  @Label("Action")
+  String action;
+
+  @Label("Repository")
+  String repository;
+
+  @Label("Server Id")
+  String serverId;
+
+  @Label("Succeeded")
+  boolean succeeded;
+}
@@ -0,0 +1,98 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compare a stream with the content of a file while the stream is written. The file is memory
+ * mapped in windows; a write which differs from the file, or would run past its end, throws {@link
+ * Mismatch} so the transfer writing the stream is aborted at the first differing byte.
+ */
+class ContentComparator extends OutputStream {
+  private static final long WINDOW_SIZE = 1L << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private MappedByteBuffer window;
+  private long position;
+  private long expectedLength = -1;
+
+  ContentComparator(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    size = channel.size();
+  }
+
+  /** Thrown when the stream differs from the file. */
+  static class Mismatch extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    Mismatch(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Set the announced length of the stream, so a stream of a different length is refused before any
+   * of its content is compared.
+   */
+  void setExpectedLength(long contentLength) {
+    expectedLength = contentLength;
+  }
+
+  /** The number of bytes compared. */
+  long getPosition() {
+    return position;
+  }
+
+  /** Check that the stream has the file's length, once the stream has completed. */
+  boolean isComplete() {
+    return position == size;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (expectedLength >= 0 && expectedLength != size) {
+      throw new Mismatch("length " + expectedLength + " differs from " + size);
+    }
+    if (position + length > size) {
+      throw new Mismatch("content exceeds " + size + " bytes");
+    }
+    for (int done = 0; done < length; ) {
+      ByteBuffer local = window();
+      int chunk = Math.min(length - done, local.remaining());
+      int differs =
+          ByteBuffer.wrap(bytes, offset + done, chunk).mismatch(local.slice().limit(chunk));
+      if (differs >= 0) {
+        throw new Mismatch("content differs at byte " + (position + differs));
+      }
+      local.position(local.position() + chunk);
+      position += chunk;
+      done += chunk;
+    }
+  }
+
+  // the mapped window holding the current position
+  private ByteBuffer window() throws IOException {
+    if (window == null || !window.hasRemaining()) {
+      window =
+          channel.map(
+              FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+    }
+    return window;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
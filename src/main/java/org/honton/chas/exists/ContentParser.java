@@ -0,0 +1,15 @@
+package org.honton.chas.exists;
+
+import java.io.InputStream;
+
+/**
+ * Parse the content of a repository resource. The whole response is first collected, into a bounded
+ * {@link ResponseBuffer} or, for wagons which cannot stream, a temporary file; the parser then
+ * reads the collected content directly, without copying it into a string.
+ *
+ * @param <T> The type of the parsed content
+ */
+@FunctionalInterface
+interface ContentParser<T> {
+  T parse(InputStream content) throws Exception;
+}
@@ -0,0 +1,58 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Caches which live as long as the plugin's class loader. In a long running JVM, such as the maven
+ * daemon, later builds reuse the results of earlier builds. Only plain data is kept; nothing which
+ * refers to a build's container or log. Every cache is bounded and evicts its least recently used
+ * entries.
+ */
+final class DaemonCache {
+
+  /** File digests, valid while the file keeps its size, modification time and file key. */
+  static final LruCache<FileStamp, byte[]> DIGESTS = new LruCache<>(4096);
+
+  /**
+   * Release artifacts known to exist, keyed by settings fingerprint and URL. Negative results and
+   * snapshots can change, so they are not kept.
+   */
+  static final LruCache<String, Boolean> RELEASES = new LruCache<>(16384);
+
+  private DaemonCache() {}
+
+  /**
+   * Identifies a version of a file's content, and the digest algorithm applied to it. The full
+   * modification time is kept, to the precision the filesystem records.
+   */
+  record FileStamp(Path path, String algorithm, long size, FileTime modified, Object fileKey) {
+
+    /** The coarsest modification time granularity of common filesystems (FAT). */
+    static final long GRANULARITY_MILLIS = 2000;
+
+    static FileStamp of(Path path, String algorithm) throws IOException {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      return new FileStamp(
+          path.toAbsolutePath(),
+          algorithm,
+          attributes.size(),
+          attributes.lastModifiedTime(),
+          attributes.fileKey());
+    }
+
+    /**
+     * Whether the stamp reliably identifies the content. A file modified within the timestamp
+     * granularity of reading the stamp could change again without changing its stamp, so its digest
+     * must not be remembered.
+     *
+     * @param readMillis The time the stamp was read
+     */
+    boolean isSettled(long readMillis) {
+      return readMillis - modified.toMillis() > GRANULARITY_MILLIS;
+    }
+  }
+}
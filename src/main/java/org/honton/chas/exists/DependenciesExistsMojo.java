@@ -0,0 +1,210 @@
+package org.honton.chas.exists;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Check that the dependencies of the project exist in the deploy repository, so consumers of the
+ * deployed artifact can resolve them. Every compile and runtime dependency which is not built by
+ * the reactor is checked concurrently. A snapshot dependency exists if its version directory has
+ * metadata. Instead of the dependencies, the goal can check the managed dependencies of a BOM, or a
+ * list of coordinates.
+ *
+ * @since 0.16.0
+ */
+@Mojo(
+    name = "dependencies",
+    defaultPhase = LifecyclePhase.VERIFY,
+    requiresDependencyResolution = ResolutionScope.RUNTIME,
+    threadSafe = true)
+public class DependenciesExistsMojo extends AbstractBatchExistsMojo {
+
+  /** The repository to query for release dependencies. */
+  @Parameter(
+      property = "exists.repository",
+      defaultValue = "${project.distributionManagement.repository.url}")
+  private String repository;
+
+  /** The repository to query for snapshot dependencies. */
+  @Parameter(
+      property = "exists.snapshotRepository",
+      defaultValue = "${project.distributionManagement.snapshotRepository.url}")
+  private String snapshotRepository;
+
+  /** The server ID to use for authentication and proxy settings of the release repository. */
+  @Parameter(
+      property = "exists.serverId",
+      defaultValue = "${project.distributionManagement.repository.id}")
+  private String serverId;
+
+  /** The server ID to use for authentication and proxy settings of the snapshot repository. */
+  @Parameter(
+      property = "exists.snapshotServerId",
+      defaultValue = "${project.distributionManagement.snapshotRepository.id}")
+  private String snapshotServerId;
+
+  /**
+   * The artifacts to check instead of the project's dependencies, as
+   * groupId:artifactId[:type[:classifier]]:version. The type maps to an extension and a classifier
+   * as for a dependency, e.g. test-jar to the jar with classifier tests.
+   */
+  @Parameter private List<String> coordinates;
+
+  /**
+   * Check the managed dependencies of the project instead of its dependencies, e.g. to confirm that
+   * every artifact of a BOM is published before the BOM is released.
+   */
+  @Parameter(property = "exists.dependencyManagement", defaultValue = "false")
+  private boolean dependencyManagement;
+
+  /**
+   * The prefix of a property set for each artifact which exists. The property name continues with
+   * the coordinates as listed, or with groupId:artifactId[:classifier] of a dependency.
+   */
+  @Parameter(property = "exists.propertyPrefix")
+  private String propertyPrefix;
+
+  @Component private ArtifactHandlerManager artifactHandlerManager;
+
+  @Override
+  protected List<RepositoryTarget> getTargets() throws MojoFailureException {
+    List<RepositoryTarget> targets = new ArrayList<>();
+    if (coordinates != null && !coordinates.isEmpty()) {
+      for (String coordinate : coordinates) {
+        targets.add(target(coordinate.trim()));
+      }
+      return targets;
+    }
+
+    Set<String> reactor = new HashSet<>();
+    for (MavenProject project : getSession().getProjects()) {
+      reactor.add(
+          project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion());
+    }
+
+    if (dependencyManagement) {
+      DependencyManagement management = getProject().getDependencyManagement();
+      if (management != null) {
+        for (Dependency dependency : management.getDependencies()) {
+          if (!Artifact.SCOPE_SYSTEM.equals(dependency.getScope())
+              && !reactor.contains(
+                  dependency.getGroupId()
+                      + ':'
+                      + dependency.getArtifactId()
+                      + ':'
+                      + dependency.getVersion())) {
+            targets.add(target(dependency));
+          }
+        }
+      }
+      return targets;
+    }
+
+    for (Artifact artifact : getProject().getArtifacts()) {
+      if (Artifact.SCOPE_SYSTEM.equals(artifact.getScope())
+          || reactor.contains(
+              artifact.getGroupId()
+                  + ':'
+                  + artifact.getArtifactId()
+                  + ':'
+                  + artifact.getVersion())) {
+        continue;
+      }
+      targets.add(target(artifact));
+    }
+    return targets;
+  }
+
+  private RepositoryTarget target(Artifact artifact) throws MojoFailureException {
+    return target(
+        artifact.getGroupId(),
+        artifact.getArtifactId(),
+        artifact.getArtifactHandler().getExtension(),
+        artifact.getClassifier(),
+        artifact.getBaseVersion());
+  }
+
+  // groupId:artifactId[:type[:classifier]]:version, with the type mapped as for a dependency
+  private RepositoryTarget target(String coordinate) throws MojoFailureException {
+    String[] parts = coordinate.split(":", -1);
+    if (parts.length < 3 || parts.length > 5) {
+      throw new MojoFailureException(
+          coordinate + " must be groupId:artifactId[:type[:classifier]]:version");
+    }
+    String type = parts.length > 3 ? parts[2] : "jar";
+    ArtifactHandler handler = artifactHandlerManager.getArtifactHandler(type);
+    String classifier = parts.length > 4 ? parts[3] : handler.getClassifier();
+    return target(
+        parts[0] + ':' + parts[1] + ':' + handler.getExtension() + ':' + parts[parts.length - 1],
+        classifier,
+        coordinate);
+  }
+
+  private RepositoryTarget target(Dependency dependency) throws MojoFailureException {
+    ArtifactHandler handler = artifactHandlerManager.getArtifactHandler(dependency.getType());
+    return target(
+        dependency.getGroupId(),
+        dependency.getArtifactId(),
+        handler.getExtension(),
+        dependency.getClassifier() != null ? dependency.getClassifier() : handler.getClassifier(),
+        dependency.getVersion());
+  }
+
+  private RepositoryTarget target(
+      String groupId, String artifactId, String extension, String classifier, String version)
+      throws MojoFailureException {
+    return target(
+        groupId + ':' + artifactId + ':' + extension + ':' + version,
+        classifier,
+        groupId + ':' + artifactId + (classifier != null ? ":" + classifier : ""));
+  }
+
+  /**
+   * The location showing that an artifact exists.
+   *
+   * @param coordinate groupId:artifactId[:extension]:version
+   * @param classifier The classifier, or null
+   * @param key The artifact's part of its property name
+   */
+  private RepositoryTarget target(String coordinate, String classifier, String key)
+      throws MojoFailureException {
+    GAV gav;
+    try {
+      gav = new GAV(coordinate, null, classifier, null);
+    } catch (IllegalArgumentException e) {
+      throw new MojoFailureException(e.getMessage(), e);
+    }
+    String property = propertyPrefix != null ? propertyPrefix + key : null;
+    if (gav.version.endsWith("-SNAPSHOT")) {
+      return new RepositoryTarget(
+          base(snapshotRepository, "snapshotRepository")
+              + gav.artifactDirectory()
+              + "maven-metadata.xml",
+          snapshotServerId,
+          property);
+    }
+    return new RepositoryTarget(
+        base(repository, "repository") + gav.artifactLocation(), serverId, property);
+  }
+
+  private static String base(String url, String element) throws MojoFailureException {
+    if (url == null) {
+      throw new MojoFailureException("<distributionManagement><" + element + "><url> not set");
+    }
+    return url.endsWith("/") ? url : url + '/';
+  }
+}
@@ -0,0 +1,77 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parse the file names from the HTML index of a repository directory, as served by repository
+ * managers and web servers.
+ */
+final class DirectoryListing {
+  private static final Pattern HREF =
+      Pattern.compile("<a\\s[^>]*href\\s*=\\s*[\"']([^\"'#?]+)", Pattern.CASE_INSENSITIVE);
+
+  private DirectoryListing() {}
+
+  /**
+   * Parse a directory listing.
+   *
+   * @return The names of the entries in the directory
+   */
+  static Set<String> parse(InputStream content) throws IOException {
+    String listing = new String(content.readAllBytes(), StandardCharsets.UTF_8);
+    Matcher matcher = HREF.matcher(listing);
+
+    Set<String> names = new HashSet<>();
+    while (matcher.find()) {
+      String name = decode(lastSegment(matcher.group(1)));
+      if (!name.isEmpty() && !name.equals(".") && !name.equals("..")) {
+        names.add(name);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Whether parsed names plausibly list a repository directory. At least one name must be a file of
+   * the directory's artifact or its metadata; a login page or single page application served in
+   * place of a listing has no such link.
+   *
+   * @param names The parsed names
+   * @param directory The repository relative directory, e.g. {@code org/example/lib/1.0/}
+   */
+  static boolean isListingOf(Set<String> names, String directory) {
+    String[] segments = directory.split("/");
+    String prefix = segments.length < 2 ? "" : segments[segments.length - 2] + '-';
+    for (String name : names) {
+      if (name.startsWith("maven-metadata") || !prefix.isEmpty() && name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // links may be absolute, relative, or directories with a trailing slash
+  private static String lastSegment(String reference) {
+    int end = reference.endsWith("/") ? reference.length() - 1 : reference.length();
+    int start = reference.lastIndexOf('/', end - 1) + 1;
+    return reference.substring(start, end);
+  }
+
+  // percent-decode as a URI path, where '+' is a literal plus rather than a space
+  private static String decode(String segment) {
+    try {
+      String path = new URI(segment).getPath();
+      return path != null ? path : segment;
+    } catch (URISyntaxException e) {
+      return segment;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client of an existence cache service, see {@link ExistenceCacheServer} for the protocol. The
+ * service is an optimization; callers treat failures as cache misses.
+ */
+class ExistenceCacheClient {
+  private static final int OK = 200;
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private static final HttpClient HTTP_CLIENT =
+      HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+  private final URI service;
+
+  /**
+   * @param service The base URL of the service
+   */
+  ExistenceCacheClient(String service) {
+    this.service = URI.create(service.endsWith("/") ? service : service + '/');
+  }
+
+  /**
+   * Look up many keys in one call.
+   *
+   * @param keys Identify the resources, e.g. absolute artifact URLs
+   * @return Whether the resources exist, for the keys known to the service
+   */
+  Map<String, Boolean> lookup(Collection<String> keys) throws IOException, InterruptedException {
+    HttpResponse<String> response = post(ExistenceCacheServer.LOOKUP, String.join("\n", keys));
+    Map<String, Boolean> known = new HashMap<>();
+    for (String line : response.body().split("\n")) {
+      int tab = line.lastIndexOf('\t');
+      if (tab > 0) {
+        known.put(line.substring(0, tab), Boolean.parseBoolean(line.substring(tab + 1)));
+      }
+    }
+    return known;
+  }
+
+  /**
+   * Publish results for other builds.
+   *
+   * @param results Whether the resources exist, by key
+   * @param ttlMillis How long the results stay valid, or {@link ExistenceCacheServer#FOREVER}
+   */
+  void publish(Map<String, Boolean> results, long ttlMillis)
+      throws IOException, InterruptedException {
+    StringBuilder body = new StringBuilder();
+    results.forEach(
+        (key, exists) ->
+            body.append(key)
+                .append('\t')
+                .append(exists)
+                .append('\t')
+                .append(ttlMillis)
+                .append('\n'));
+    post(ExistenceCacheServer.PUBLISH, body.toString());
+  }
+
+  private HttpResponse<String> post(String operation, String body)
+      throws IOException, InterruptedException {
+    HttpRequest request =
+        HttpRequest.newBuilder(service.resolve(operation.substring(1)))
+            .timeout(TIMEOUT)
+            .header("Content-Type", "text/plain; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != OK) {
+      throw new IOException(operation + " returned status " + response.statusCode());
+    }
+    return response;
+  }
+}
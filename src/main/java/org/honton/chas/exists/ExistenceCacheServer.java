@@ -0,0 +1,144 @@
+package org.honton.chas.exists;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reference existence cache service, shared by the builds of many CI agents. Entries are held in
+ * memory; beyond the capacity, the least recently used entries are evicted. Run standalone with
+ * {@code java -cp exists-maven-plugin.jar org.honton.chas.exists.ExistenceCacheServer <port>
+ * [capacity]}.
+ *
+ * <pre>
+ * POST /lookup   request lines: key
+ *                response lines: key TAB true|false, for keys with a live entry
+ * POST /publish  request lines: key TAB true|false TAB time to live in milliseconds, -1 for ever
+ * </pre>
+ */
+public class ExistenceCacheServer implements AutoCloseable {
+  static final String LOOKUP = "/lookup";
+  static final String PUBLISH = "/publish";
+  static final long FOREVER = -1;
+  static final int DEFAULT_CAPACITY = 1_000_000;
+
+  private static final int OK = 200;
+  private static final int BAD_REQUEST = 400;
+  private static final int NOT_FOUND = 404;
+
+  private final HttpServer server;
+  private final LruCache<String, Entry> entries;
+
+  /**
+   * Start serving.
+   *
+   * @param port The port to listen on, or 0 for any free port
+   * @param capacity The maximum number of entries held
+   */
+  ExistenceCacheServer(int port, int capacity) throws IOException {
+    entries = new LruCache<>(capacity);
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public static void main(String[] args) throws IOException {
+    int capacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CAPACITY;
+    ExistenceCacheServer server = new ExistenceCacheServer(Integer.parseInt(args[0]), capacity);
+    System.out.println("existence cache listening on port " + server.getPort());
+  }
+
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(BAD_REQUEST, -1);
+        return;
+      }
+      String path = exchange.getRequestURI().getPath();
+      if (path.endsWith(LOOKUP)) {
+        lookup(exchange);
+      } else if (path.endsWith(PUBLISH)) {
+        publish(exchange);
+      } else {
+        exchange.sendResponseHeaders(NOT_FOUND, -1);
+      }
+    }
+  }
+
+  private void lookup(HttpExchange exchange) throws IOException {
+    StringBuilder response = new StringBuilder();
+    long now = System.currentTimeMillis();
+    try (BufferedReader reader = reader(exchange)) {
+      for (String key = reader.readLine(); key != null; key = reader.readLine()) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+          if (entry.isLive(now)) {
+            response.append(key).append('\t').append(entry.exists).append('\n');
+          } else {
+            entries.remove(key, entry);
+          }
+        }
+      }
+    }
+    byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(OK, body.length == 0 ? -1 : body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  private void publish(HttpExchange exchange) throws IOException {
+    long now = System.currentTimeMillis();
+    try (BufferedReader reader = reader(exchange)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        String[] fields = line.split("\t");
+        if (fields.length != 3) {
+          exchange.sendResponseHeaders(BAD_REQUEST, -1);
+          return;
+        }
+        long ttl = Long.parseLong(fields[2]);
+        Entry entry = new Entry(Boolean.parseBoolean(fields[1]), ttl < 0 ? FOREVER : now + ttl);
+        // an immutable entry is never replaced
+        entries.merge(fields[0], entry, (prior, update) -> prior.isImmutable() ? prior : update);
+      }
+    } catch (NumberFormatException e) {
+      exchange.sendResponseHeaders(BAD_REQUEST, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(OK, -1);
+  }
+
+  private static BufferedReader reader(HttpExchange exchange) {
+    return new BufferedReader(
+        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+  }
+
+  private record Entry(boolean exists, long expiresAt) {
+    boolean isImmutable() {
+      return expiresAt == FOREVER;
+    }
+
+    boolean isLive(long now) {
+      return isImmutable() || now < expiresAt;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package org.honton.chas.exists;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+
+/**
+ * Asynchronous existence and checksum checks of files in one repository, for plugins and extensions
+ * which need the same answers as this plugin's goals. Checks run concurrently on shared threads.
+ * Remote checks share the session's per host concurrency limits, throttling, circuit breakers,
+ * pooled wagons and in flight requests with the goals, so concurrent identical checks cost one
+ * request.
+ *
+ * <p>Obtain instances from {@link #local(Path)}, {@link #remote(MavenSession, PlexusContainer, Log,
+ * String, String)} and {@link #cached(ExistenceChecker)} and {@link #tiered(Path, String,
+ * ExistenceChecker)}.
+ *
+ * @since 0.16.0
+ */
+public interface ExistenceChecker {
+
+  /**
+   * Check files in a local repository directory.
+   *
+   * @param repository The base directory of the repository
+   */
+  static ExistenceChecker local(Path repository) {
+    return new LocalChecker(repository);
+  }
+
+  /**
+   * Check files in a remote repository, using the proxy, authentication and mirror settings of the
+   * session.
+   *
+   * @param session The build session
+   * @param container The container holding the wagons and the settings decrypter
+   * @param log Receives progress of the requests
+   * @param url The base URL of the repository
+   * @param serverId The id of the server in settings.xml, or null
+   * @throws ComponentLookupException when the container lacks a required component
+   */
+  static ExistenceChecker remote(
+      MavenSession session, PlexusContainer container, Log log, String url, String serverId)
+      throws ComponentLookupException {
+    return RemoteChecker.create(session, container, log, url, serverId);
+  }
+
+  /**
+   * Remember existing release files for the life of the plugin's class loader. An existing release
+   * never changes, so later checks of the same file, even from later builds in a long running JVM,
+   * are answered without asking the repository. Snapshots and missing files are always checked.
+   *
+   * @param checker The checker to ask about unknown files
+   */
+  static ExistenceChecker cached(ExistenceChecker checker) {
+    return new CachedChecker(checker);
+  }
+
+  /**
+   * Answer from the local repository when it holds a release file resolved from the remote
+   * repository, and ask the remote repository otherwise. The resolver records the id of the
+   * repository each file came from in the version directory's <em>_remote.repositories</em> file.
+   *
+   * @param localRepository The base directory of the local repository
+   * @param repositoryId The id of the remote repository
+   * @param remote The checker of the remote repository
+   */
+  static ExistenceChecker tiered(
+      Path localRepository, String repositoryId, ExistenceChecker remote) {
+    return new TieredChecker(localRepository, repositoryId, remote);
+  }
+
+  /** The location of the repository, a directory or URL. */
+  String getLocation();
+
+  /**
+   * The name of the metadata file in a version directory: <em>maven-metadata.xml</em> in remote
+   * repositories and <em>maven-metadata-local.xml</em> in local repositories.
+   */
+  String getMetadataName();
+
+  /**
+   * Check whether a file exists in the repository.
+   *
+   * @param path The repository relative path of the file
+   * @return Completes with whether the file exists
+   */
+  CompletableFuture<Boolean> exists(String path);
+
+  /**
+   * Get the SHA-1 checksum of a file in the repository.
+   *
+   * @param path The repository relative path of the file
+   * @return Completes with the hex encoded checksum, or null if the repository has none
+   */
+  CompletableFuture<String> checksum(String path);
+
+  /**
+   * Check whether artifacts exist. All artifacts are checked concurrently. A snapshot version
+   * exists if its version directory has metadata.
+   *
+   * @param coordinates Artifacts as groupId:artifactId[:packaging]:version
+   * @return The check of each distinct artifact, in the order of the coordinates. Malformed
+   *     coordinates fail their check with an IllegalArgumentException.
+   */
+  default Map<String, CompletableFuture<Boolean>> artifactsExist(Collection<String> coordinates) {
+    Map<String, CompletableFuture<Boolean>> checks = new LinkedHashMap<>();
+    for (String coordinate : coordinates) {
+      checks.computeIfAbsent(
+          coordinate,
+          c -> {
+            try {
+              return exists(new GAV(c, null, null, null).existencePath(getMetadataName()));
+            } catch (IllegalArgumentException e) {
+              return CompletableFuture.failedFuture(e);
+            }
+          });
+    }
+    return checks;
+  }
+}
@@ -0,0 +1,30 @@
+package org.honton.chas.exists;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for calculating the digests of a file. */
+@Name("org.honton.chas.exists.FileHash")
+@Label("File Hash")
+@Category({"Maven", "Exists"})
+@Description("Reading a file to calculate its digests")
+class FileHashEvent extends jdk.jfr.Event {
+  @Label("Path")
+  String path;
+
+  @Label("Algorithms")
+  String algorithms;
+
+  @Label("Size")
+  @DataAmount
+  long size;
+
+  @Label("Throughput")
+  @DataAmount
+  @Frequency
+  long throughput;
+}
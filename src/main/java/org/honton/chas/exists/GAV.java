@@ -3,7 +3,6 @@ package org.honton.chas.exists;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import org.apache.maven.plugin.MojoFailureException;
 
 public class GAV {
 
@@ -20,12 +19,11 @@ public class GAV {
       String project,
       String packaging,
       String configuredClassifier,
-      Map<String, String> packageExtensions)
-      throws MojoFailureException {
+      Map<String, String> packageExtensions) {
     Matcher matcher = GAV_PARSER.matcher(project);
     if (!matcher.matches()) {
-      throw new MojoFailureException(
-          "Project property must be in format groupId:artifactId:[packaging:]version");
+      throw new IllegalArgumentException(
+          project + " must be in format groupId:artifactId[:packaging]:version");
     }
 
     groupId = matcher.group(1);
@@ -33,8 +31,14 @@ public class GAV {
     String optional = matcher.group(4);
     version = matcher.group(5);
     String packagingType = packaging != null ? packaging : "jar";
-    classifier = configuredClassifier != null ? configuredClassifier : classifier(packagingType);
-    extension = extension(packageExtensions, optional != null ? optional : packagingType);
+    String type = optional != null ? optional : packagingType;
+    // a type such as test-jar in the coordinate implies its classifier
+    String implied = classifier(type);
+    classifier =
+        configuredClassifier != null
+            ? configuredClassifier
+            : implied != null ? implied : classifier(packagingType);
+    extension = extension(packageExtensions, type);
   }
 
   // https://maven.apache.org/ref/current/maven-core/artifact-handlers.html
@@ -69,6 +73,16 @@ public class GAV {
     return artifactDirectory() + artifactFile(buildVersion);
   }
 
+  /**
+   * The repository path showing that the artifact exists. A snapshot version exists if its version
+   * directory has metadata.
+   *
+   * @param metadataName The name of the version directory's metadata file
+   */
+  String existencePath(String metadataName) {
+    return version.endsWith("-SNAPSHOT") ? artifactDirectory() + metadataName : artifactLocation();
+  }
+
   String artifactDirectory() {
     // ${groupId.replace('.','/')}/${artifactId}${platformId==null?'':'-'+platformId}/${version}/
     return groupId.replace('.', '/') + '/' + artifactId + '/' + version + '/';
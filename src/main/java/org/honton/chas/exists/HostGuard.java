@@ -0,0 +1,132 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * Send requests with the JDK http client, where wagons do not fit, within the repository host's
+ * adaptive concurrency limit and circuit breaker. Throttled requests are retried after the delay of
+ * the response's Retry-After header, or else after a backoff delay, and every request is recorded
+ * as a {@link RepositoryRequestEvent}, as for requests through {@link WagonHelper}.
+ */
+class HostGuard {
+  private final AdaptiveLimiter limiter;
+  private final CircuitBreaker breaker;
+  private final int retries;
+  private final long backoffMillis;
+
+  /**
+   * @param limiter The host's concurrency limit
+   * @param breaker The host's circuit breaker
+   * @param retries The number of times a throttled request is retried
+   * @param backoffMillis The delay before the first retry, doubled for each further retry
+   */
+  HostGuard(AdaptiveLimiter limiter, CircuitBreaker breaker, int retries, long backoffMillis) {
+    this.limiter = limiter;
+    this.breaker = breaker;
+    this.retries = retries;
+    this.backoffMillis = backoffMillis;
+  }
+
+  /** Get the guard of a URL's host, sharing the limiter and breaker of the session's wagons. */
+  static HostGuard forUrl(RemoteOptions options, String url) {
+    String host = host(new Repository("", url));
+    return new HostGuard(
+        AdaptiveLimiter.forHost(options.session(), host, options.maxConcurrency()),
+        CircuitBreaker.forHost(
+            options.session(),
+            host,
+            options.circuitBreakerThreshold(),
+            options.circuitBreakerProbeInterval()),
+        options.throttleRetries(),
+        options.throttleBackoff());
+  }
+
+  /** The key of a host's limiter and breaker. */
+  static String host(Repository repository) {
+    return repository.getProtocol() + "://" + repository.getHost() + ':' + repository.getPort();
+  }
+
+  /**
+   * Send a request.
+   *
+   * @return The response, which is not a throttling response
+   * @throws CircuitBreaker.OpenException if the host is unavailable
+   * @throws IOException if the request failed, or the host kept throttling it
+   */
+  <T> HttpResponse<T> send(
+      HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+      throws Exception {
+    breaker.allowRequest();
+    URI uri = request.uri();
+    RepositoryRequestEvent event = RepositoryRequestEvent.start(request.method(), uri.getPath());
+    String repository = uri.getScheme() + "://" + uri.getRawAuthority();
+    try {
+      HttpResponse<T> response =
+          limiter.call(() -> sendOnce(client, request, handler), retries, backoffMillis);
+      breaker.succeed();
+      event.finish(
+          repository,
+          response.statusCode(),
+          response.body() instanceof byte[] body ? body.length : 0);
+      return response;
+    } catch (Exception e) {
+      breaker.fail(e);
+      event.finish(repository, AdaptiveLimiter.statusCode(e), 0);
+      throw e;
+    }
+  }
+
+  // a throttling response fails the attempt, so the limiter backs off and retries it
+  private static <T> HttpResponse<T> sendOnce(
+      HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    HttpResponse<T> response = client.send(request, handler);
+    int status = response.statusCode();
+    if (status == AdaptiveLimiter.TOO_MANY_REQUESTS
+        || status == AdaptiveLimiter.SERVICE_UNAVAILABLE) {
+      throw new AdaptiveLimiter.ThrottledException(
+          request.method() + " " + request.uri() + " failed, status: " + status,
+          response
+              .headers()
+              .firstValue("Retry-After")
+              .map(value -> retryAfterMillis(value, System.currentTimeMillis()))
+              .orElse(-1L));
+    }
+    return response;
+  }
+
+  /**
+   * Parse a Retry-After header, either delay-seconds or an HTTP-date.
+   *
+   * @param value The header value
+   * @param nowMillis The current time
+   * @return The milliseconds to wait, or -1 if the value is not valid
+   */
+  static long retryAfterMillis(String value, long nowMillis) {
+    String trimmed = value.trim();
+    if (!trimmed.isEmpty() && trimmed.chars().allMatch(Character::isDigit)) {
+      try {
+        return Math.multiplyExact(Long.parseLong(trimmed), 1000);
+      } catch (ArithmeticException | NumberFormatException e) {
+        return Long.MAX_VALUE;
+      }
+    }
+    try {
+      long at =
+          ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME)
+              .toInstant()
+              .toEpochMilli();
+      return Math.max(0, at - nowMillis);
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.honton.chas.exists;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Write an index of the artifacts and their checksums in a repository directory tree, such as the
+ * local repository or a mirror of a remote repository. The local and remote goals answer existence
+ * and checksum queries for release artifacts from this index when their indexFile parameter is set,
+ * and they query the same repository that the index records.
+ *
+ * @since 0.16.0
+ */
+@Mojo(name = "index", requiresProject = false, threadSafe = true)
+public class IndexMojo extends AbstractMojo {
+
+  /** The repository directory tree to index. Defaults to the local repository. */
+  @Parameter(property = "exists.repositoryDirectory", defaultValue = "${settings.localRepository}")
+  private File repositoryDirectory;
+
+  /**
+   * The URL of the remote repository which the directory tree mirrors. The remote goal uses the
+   * index only when checking this repository. Defaults to the directory itself, whose index the
+   * local goal uses when the directory is its local repository.
+   */
+  @Parameter(property = "exists.indexedRepository")
+  private String indexedRepository;
+
+  /** The index file to write. Defaults to exists.idx in the repository directory. */
+  @Parameter(property = "exists.indexFile")
+  private File indexFile;
+
+  /** Skip executing this plugin */
+  @Parameter(property = "exists.skip", defaultValue = "false")
+  private boolean skip;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (skip) {
+      getLog().info("skipping exists execution");
+      return;
+    }
+
+    // the goal runs without a project, so there is no build directory to default to
+    File index = indexFile != null ? indexFile : new File(repositoryDirectory, "exists.idx");
+    String location =
+        indexedRepository != null ? indexedRepository : repositoryDirectory.getAbsolutePath();
+    getLog().info("Indexing " + repositoryDirectory + " as " + location + " into " + index);
+    try {
+      int count = RepositoryIndex.write(repositoryDirectory.toPath(), location, index.toPath());
+      getLog().info("Indexed " + count + " artifacts");
+    } catch (IOException e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+  }
+}
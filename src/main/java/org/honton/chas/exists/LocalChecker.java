@@ -0,0 +1,38 @@
+package org.honton.chas.exists;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/** Checks files in a local repository directory. */
+class LocalChecker implements ExistenceChecker {
+  private final Path repository;
+
+  LocalChecker(Path repository) {
+    this.repository = repository;
+  }
+
+  @Override
+  public String getLocation() {
+    return repository.toString();
+  }
+
+  @Override
+  public String getMetadataName() {
+    return "maven-metadata-local.xml";
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(String path) {
+    return CheckExecutor.supply(() -> Files.isReadable(repository.resolve(path)));
+  }
+
+  @Override
+  public CompletableFuture<String> checksum(String path) {
+    return CheckExecutor.supply(
+        () -> {
+          Path file = repository.resolve(path);
+          return Files.isReadable(file) ? new CheckSum().getChecksum(file) : null;
+        });
+  }
+}
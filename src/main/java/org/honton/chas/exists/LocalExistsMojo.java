@@ -1,11 +1,10 @@
 package org.honton.chas.exists;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.GeneralSecurityException;
 import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -44,23 +43,40 @@ public class LocalExistsMojo extends AbstractExistsMojo {
   }
 
   @Override
-  protected String getMavenMetadata(String directory) throws Exception {
+  protected String getRepositoryLocation() {
+    return localRepository.getBasedir();
+  }
+
+  @Override
+  protected Metadata getMavenMetadata(String directory) throws Exception {
     Path path = getPath(localRepository.getBasedir(), directory, "maven-metadata-local.xml");
     getLog().debug("Reading metadata from " + path);
-    return Files.readString(path, StandardCharsets.ISO_8859_1);
+    try (InputStream is = Files.newInputStream(path)) {
+      return readMetadata(path.toString(), is);
+    }
   }
 
   @Override
-  protected boolean checkArtifactExists(String file) {
-    Path path = getPath(localRepository.getBasedir(), file);
-    getLog().info("Checking for artifact at " + path);
-    return Files.isReadable(path);
+  protected boolean checkArtifactExists(String file) throws Exception {
+    getLog().info("Checking for artifact at " + getPath(localRepository.getBasedir(), file));
+    return CheckExecutor.getResult(getChecker().exists(file));
   }
 
   @Override
-  protected String getArtifactChecksum(String file) throws IOException, GeneralSecurityException {
+  protected String getArtifactChecksum(String file) throws Exception {
+    getLog().debug("checking for resource " + getPath(localRepository.getBasedir(), file));
+    return CheckExecutor.getResult(getChecker().checksum(file));
+  }
+
+  @Override
+  protected Boolean samplesMatch(String file, Path buildPath, SampledComparison comparison)
+      throws Exception {
     Path path = getPath(localRepository.getBasedir(), file);
-    getLog().debug("checking for resource " + path);
-    return new CheckSum().getChecksum(path);
+    getLog().info("Comparing samples of " + buildPath + " with " + path);
+    return comparison.matches(buildPath, SampledComparison.of(path));
+  }
+
+  private ExistenceChecker getChecker() {
+    return ExistenceChecker.local(Path.of(localRepository.getBasedir()));
   }
 }
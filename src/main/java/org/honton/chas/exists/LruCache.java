@@ -0,0 +1,47 @@
+package org.honton.chas.exists;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map holding at most a fixed number of entries, evicting the least recently used.
+ */
+class LruCache<K, V> {
+  private final Map<K, V> entries;
+
+  LruCache(int capacity) {
+    entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  synchronized V get(K key) {
+    return entries.get(key);
+  }
+
+  synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+    return entries.computeIfAbsent(key, factory);
+  }
+
+  synchronized void put(K key, V value) {
+    entries.put(key, value);
+  }
+
+  synchronized V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+    return entries.merge(key, value, remapping);
+  }
+
+  synchronized boolean remove(K key, V value) {
+    return entries.remove(key, value);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,78 @@
+package org.honton.chas.exists;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+
+/**
+ * Calculate a Merkle tree digest of the build output directories before packaging. The digest is
+ * written to <em>${project.build.finalName}.merkle</em> and attached to the project with type and
+ * classifier <em>merkle</em>, so it is installed and deployed next to the artifact. A local or
+ * remote goal comparing the checksum of the <em>merkle</em> artifact then finds unchanged outputs
+ * before anything is packaged.
+ *
+ * @since 0.16.0
+ */
+@Mojo(name = "merkle", defaultPhase = LifecyclePhase.PREPARE_PACKAGE, threadSafe = true)
+public class MerkleMojo extends AbstractMojo {
+  static final String TYPE = "merkle";
+  static final String CLASSIFIER = "merkle";
+
+  @Parameter(defaultValue = "${project}", required = true, readonly = true)
+  private MavenProject mavenProject;
+
+  @Component private MavenProjectHelper projectHelper;
+
+  /** The build output directories to digest. Defaults to the project's output directory. */
+  @Parameter private List<File> directories;
+
+  /** The digest algorithm of files and directories, e.g. SHA-256 or SHA-1. */
+  @Parameter(property = "exists.merkleAlgorithm", defaultValue = "SHA-256")
+  private String merkleAlgorithm;
+
+  /** Skip executing this plugin */
+  @Parameter(property = "exists.skip", defaultValue = "false")
+  private boolean skip;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (skip) {
+      getLog().info("skipping exists execution");
+      return;
+    }
+
+    List<Path> roots = new ArrayList<>();
+    if (directories == null || directories.isEmpty()) {
+      roots.add(Path.of(mavenProject.getBuild().getOutputDirectory()));
+    } else {
+      for (File directory : directories) {
+        roots.add(directory.toPath());
+      }
+    }
+
+    try {
+      String digest = new MerkleTree(merkleAlgorithm).digest(roots);
+      getLog().info(merkleAlgorithm + " Merkle digest of " + roots + " is " + digest);
+      Path file =
+          Path.of(
+              mavenProject.getBuild().getDirectory(),
+              mavenProject.getBuild().getFinalName() + '.' + TYPE);
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, digest + '\n', StandardCharsets.UTF_8);
+      projectHelper.attachArtifact(mavenProject, TYPE, CLASSIFIER, file.toFile());
+    } catch (Exception e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+  }
+}
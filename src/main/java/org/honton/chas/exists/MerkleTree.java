@@ -0,0 +1,95 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A Merkle tree digest of directory trees. Each file is a leaf holding the digest of its content;
+ * each directory is a node holding the digest of its sorted entries' names, kinds, and digests. The
+ * entries of a directory are digested in parallel, so large trees use every core.
+ *
+ * <pre>
+ * directory: digest( for each entry sorted by name: kind ('d' or 'f'), UTF-8 name, 0, digest )
+ * roots: digest( for each root: 'd', digest ) with missing roots as empty directories
+ * </pre>
+ */
+class MerkleTree {
+  private static final byte DIRECTORY = 'd';
+  private static final byte FILE = 'f';
+
+  private final String algorithm;
+
+  MerkleTree(String algorithm) throws NoSuchAlgorithmException {
+    MessageDigest.getInstance(algorithm);
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * Digest directory trees.
+   *
+   * @param roots The directories, in a stable order
+   * @return The hex encoded digest
+   */
+  String digest(List<Path> roots) throws IOException {
+    MessageDigest md = newDigest();
+    for (Path root : roots) {
+      md.update(DIRECTORY);
+      md.update(Files.isDirectory(root) ? directoryDigest(root) : newDigest().digest());
+    }
+    return CheckSum.hexEncode(md.digest());
+  }
+
+  private byte[] directoryDigest(Path directory) throws IOException {
+    List<Path> entries;
+    try (Stream<Path> list = Files.list(directory)) {
+      entries =
+          list.sorted(Comparator.comparing(path -> path.getFileName().toString()))
+              .collect(Collectors.toList());
+    }
+    List<byte[]> digests;
+    try {
+      digests = entries.parallelStream().map(this::entryDigest).collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    MessageDigest md = newDigest();
+    for (int i = 0; i < entries.size(); ++i) {
+      md.update(Files.isDirectory(entries.get(i)) ? DIRECTORY : FILE);
+      md.update(entries.get(i).getFileName().toString().getBytes(StandardCharsets.UTF_8));
+      md.update((byte) 0);
+      md.update(digests.get(i));
+    }
+    return md.digest();
+  }
+
+  private byte[] entryDigest(Path entry) {
+    try {
+      // file digests are cached, so an unchanged file is not read again in a long lived JVM
+      return Files.isDirectory(entry)
+          ? directoryDigest(entry)
+          : new CheckSum(algorithm).getChecksumBytes(entry);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package org.honton.chas.exists;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for parsing maven-metadata.xml. */
+@Name("org.honton.chas.exists.MetadataParse")
+@Label("Metadata Parse")
+@Category({"Maven", "Exists"})
+@Description("Parsing repository metadata to find the latest snapshot")
+class MetadataParseEvent extends jdk.jfr.Event {
+  @Label("Location")
+  String location;
+
+  @Label("Snapshot Versions")
+  int snapshotVersions;
+}
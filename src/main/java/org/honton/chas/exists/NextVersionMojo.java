@@ -0,0 +1,202 @@
+package org.honton.chas.exists;
+
+import java.util.List;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.configuration.BeanConfigurator;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
+
+/**
+ * Set a property to the next version of a series which is not deployed. The artifact's
+ * maven-metadata.xml is fetched once and the version following the highest deployed version of the
+ * series is computed. In case the metadata is stale, the pom of that version is checked with one
+ * request before the property is set.
+ *
+ * @since 0.16.0
+ */
+@Mojo(name = "next-version", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
+public class NextVersionMojo extends AbstractMojo implements Contextualizable {
+
+  /**
+   * The starting version, whose last number before any qualifier increases, e.g. 1.4.0; or a
+   * pattern with one * standing for the increasing number, e.g. 1.4.*. A -SNAPSHOT suffix is
+   * ignored.
+   */
+  @Parameter(property = "exists.versionSeries", defaultValue = "${project.version}")
+  private String versionSeries;
+
+  /** The property to set with the next version. */
+  @Parameter(property = "exists.nextVersionProperty", defaultValue = "exists.nextVersion")
+  private String property;
+
+  /** Set a user property rather than a project property. */
+  @Parameter(property = "exists.userProperty", defaultValue = "false")
+  private boolean userProperty;
+
+  /** Skip executing this plugin. */
+  @Parameter(property = "exists.skip", defaultValue = "false")
+  private boolean skip;
+
+  /** The repository to query for deployed versions. */
+  @Parameter(
+      property = "exists.repository",
+      defaultValue = "${project.distributionManagement.repository.url}")
+  private String repository;
+
+  /** The server ID to use for authentication and proxy settings of the repository. */
+  @Parameter(
+      property = "exists.serverId",
+      defaultValue = "${project.distributionManagement.repository.id}")
+  private String serverId;
+
+  /**
+   * The maximum number of concurrent requests to one repository host from all executions in the
+   * build. Requests start with a lower limit which rises while the host keeps up and halves
+   * whenever the host responds with 429 (Too Many Requests) or 503 (Service Unavailable).
+   */
+  @Parameter(property = "exists.maxConcurrency", defaultValue = "16")
+  private int maxConcurrency;
+
+  /** The number of times a request throttled with 429 or 503 is retried. */
+  @Parameter(property = "exists.throttleRetries", defaultValue = "3")
+  private int throttleRetries;
+
+  /**
+   * The milliseconds to pause requests to a throttling host before the first retry. The pause
+   * doubles for each further retry.
+   */
+  @Parameter(property = "exists.throttleBackoff", defaultValue = "1000")
+  private long throttleBackoff;
+
+  /**
+   * The consecutive connection failures to a repository host, from all executions in the build,
+   * which open its circuit breaker. Zero disables the circuit breaker.
+   */
+  @Parameter(property = "exists.circuitBreakerThreshold", defaultValue = "3")
+  private int circuitBreakerThreshold;
+
+  /** The milliseconds between probes of a repository host with an open circuit breaker. */
+  @Parameter(property = "exists.circuitBreakerProbeInterval", defaultValue = "30000")
+  private long circuitBreakerProbeInterval;
+
+  @Component(role = SecDispatcher.class, hint = "default")
+  private SecDispatcher securityDispatcher;
+
+  @Component(role = BeanConfigurator.class, hint = "default")
+  private BeanConfigurator beanConfigurator;
+
+  @Parameter(defaultValue = "${settings}", required = true, readonly = true)
+  private Settings settings;
+
+  @Parameter(defaultValue = "${project}", required = true, readonly = true)
+  private MavenProject mavenProject;
+
+  @Parameter(defaultValue = "${session}", required = true, readonly = true)
+  private MavenSession session;
+
+  private PlexusContainer container;
+
+  @Override
+  public void contextualize(Context context) throws ContextException {
+    container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
+  }
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    if (skip) {
+      getLog().info("skipping exists execution");
+      return;
+    }
+    if (repository == null) {
+      throw new MojoFailureException("<distributionManagement><repository><url> not set");
+    }
+    VersionFinder finder;
+    try {
+      finder = new VersionFinder(versionSeries);
+    } catch (IllegalArgumentException e) {
+      throw new MojoFailureException(e.getMessage(), e);
+    }
+    try {
+      setProperty(findNextVersion(finder));
+    } catch (MojoExecutionException | MojoFailureException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    } finally {
+      AdaptiveLimiter.logThrottled(session, getLog());
+    }
+  }
+
+  private String findNextVersion(VersionFinder finder) throws Exception {
+    RemoteOptions options =
+        new RemoteOptions(
+            session,
+            getLog(),
+            WagonFactory.get(session, settings, securityDispatcher, beanConfigurator, container),
+            maxConcurrency,
+            throttleRetries,
+            throttleBackoff,
+            circuitBreakerThreshold,
+            circuitBreakerProbeInterval,
+            RemoteChecker.MAX_RESPONSE_SIZE);
+    RemoteChecker checker = new RemoteChecker(options, serverId, repository);
+    String artifactDirectory =
+        mavenProject.getGroupId().replace('.', '/') + '/' + mavenProject.getArtifactId() + '/';
+    String metadataPath = artifactDirectory + "maven-metadata.xml";
+    String location = checker.getLocation() + '/' + metadataPath;
+    getLog().info("Reading versions from " + location);
+
+    List<String> versions;
+    try {
+      Metadata metadata =
+          checker.request(
+              "GET",
+              metadataPath,
+              wagonHelper ->
+                  wagonHelper.getContent(
+                      metadataPath, is -> AbstractExistsMojo.readMetadata(location, is)));
+      Versioning versioning = metadata.getVersioning();
+      versions = versioning == null ? List.of() : versioning.getVersions();
+    } catch (ResourceDoesNotExistException e) {
+      versions = List.of();
+    }
+
+    String candidate = finder.next(versions);
+    // metadata may lag behind a deployment; the pom is deployed with every version
+    while (CheckExecutor.getResult(checker.exists(pomPath(artifactDirectory, candidate)))) {
+      getLog().info(candidate + " is deployed, although not in metadata");
+      candidate = finder.next(List.of(candidate));
+    }
+    return candidate;
+  }
+
+  private String pomPath(String artifactDirectory, String version) {
+    return artifactDirectory
+        + version
+        + '/'
+        + mavenProject.getArtifactId()
+        + '-'
+        + version
+        + ".pom";
+  }
+
+  private void setProperty(String version) {
+    ProjectProperties.set(getLog(), session, mavenProject, userProperty, property, version);
+  }
+}
@@ -0,0 +1,36 @@
+package org.honton.chas.exists;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+/** Sets the properties which goals use to report their results. */
+final class ProjectProperties {
+
+  private ProjectProperties() {}
+
+  /**
+   * Set a property of the project, or a user property which is also visible to the modules of a
+   * parent POM.
+   *
+   * @param log Receives the property set
+   * @param session The build session, holding the user properties
+   * @param project The project, holding the project properties
+   * @param userProperty Whether to set a user property
+   */
+  static void set(
+      Log log,
+      MavenSession session,
+      MavenProject project,
+      boolean userProperty,
+      String name,
+      String value) {
+    if (userProperty) {
+      log.info("setting user property " + name + '=' + value);
+      session.getUserProperties().setProperty(name, value);
+    } else {
+      log.info("setting " + name + '=' + value);
+      project.getProperties().setProperty(name, value);
+    }
+  }
+}
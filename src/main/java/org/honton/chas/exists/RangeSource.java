@@ -0,0 +1,158 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.proxy.ProxyUtils;
+
+/**
+ * Regions of a remote file, fetched with HTTP range requests. Wagons refuse partial content, so the
+ * requests are sent directly, with the server's username and password as Basic credentials, the
+ * server's configured http headers, and the active proxy, through the host's {@link HostGuard}. A
+ * server which ignores ranges, or refuses the requests, leaves the regions unavailable.
+ */
+class RangeSource implements SampledComparison.Source {
+  private static final int PARTIAL_CONTENT = 206;
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  // a server ignoring the range sends the whole file; closing the unread body cancels the transfer
+  private static final HttpResponse.BodyHandler<byte[]> PARTIAL_BODY =
+      info ->
+          info.statusCode() == PARTIAL_CONTENT
+              ? HttpResponse.BodySubscribers.ofByteArray()
+              : HttpResponse.BodySubscribers.mapping(
+                  HttpResponse.BodySubscribers.ofInputStream(),
+                  body -> {
+                    try {
+                      body.close();
+                    } catch (IOException e) {
+                      throw new UncheckedIOException(e);
+                    }
+                    return null;
+                  });
+
+  private final HttpClient httpClient;
+  private final URI url;
+  private final String authorization;
+  private final List<String> headers;
+  private final HostGuard guard;
+
+  /**
+   * @param url The URL of the file
+   * @param authentication The server's credentials, or null
+   * @param headers Header names and values, alternating, sent with every request
+   * @param proxy The active proxy, or null
+   * @param guard The guard of the file's host
+   */
+  RangeSource(
+      String url,
+      AuthenticationInfo authentication,
+      List<String> headers,
+      ProxyInfo proxy,
+      HostGuard guard) {
+    this.url = URI.create(url);
+    this.headers = headers;
+    this.guard = guard;
+    HttpClient.Builder builder =
+        HttpClient.newBuilder().connectTimeout(TIMEOUT).followRedirects(HttpClient.Redirect.NORMAL);
+    if (proxy != null && !ProxyUtils.validateNonProxyHosts(proxy, this.url.getHost())) {
+      builder.proxy(
+          ProxySelector.of(InetSocketAddress.createUnresolved(proxy.getHost(), proxy.getPort())));
+      if (proxy.getUserName() != null) {
+        builder.authenticator(proxyAuthenticator(proxy));
+      }
+    }
+    httpClient = builder.build();
+    authorization =
+        authentication != null && authentication.getUserName() != null
+            ? "Basic "
+                + Base64.getEncoder()
+                    .encodeToString(
+                        (authentication.getUserName()
+                                + ':'
+                                + (authentication.getPassword() != null
+                                    ? authentication.getPassword()
+                                    : ""))
+                            .getBytes(StandardCharsets.UTF_8))
+            : null;
+  }
+
+  // answers only the proxy's challenges; the server's credentials are sent with each request
+  private static Authenticator proxyAuthenticator(ProxyInfo proxy) {
+    PasswordAuthentication credentials =
+        new PasswordAuthentication(
+            proxy.getUserName(),
+            proxy.getPassword() != null ? proxy.getPassword().toCharArray() : new char[0]);
+    return new Authenticator() {
+      @Override
+      protected PasswordAuthentication getPasswordAuthentication() {
+        return getRequestorType() == RequestorType.PROXY ? credentials : null;
+      }
+    };
+  }
+
+  // the size is the total length of the Content-Range of the first byte
+  @Override
+  public long size() throws Exception {
+    HttpResponse<byte[]> response = guard.send(httpClient, request(0, 1), PARTIAL_BODY);
+    if (response.statusCode() != PARTIAL_CONTENT) {
+      return -1;
+    }
+    String range = response.headers().firstValue("Content-Range").orElse("");
+    int slash = range.lastIndexOf('/');
+    try {
+      return slash < 0 ? -1 : Long.parseLong(range.substring(slash + 1).trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  @Override
+  public byte[][] read(List<SampledComparison.Region> regions) throws Exception {
+    List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+    for (SampledComparison.Region region : regions) {
+      HttpRequest request = request(region.offset(), region.length());
+      // the host's limiter bounds the requests actually in flight
+      responses.add(CheckExecutor.supply(() -> guard.send(httpClient, request, PARTIAL_BODY)));
+    }
+    byte[][] content = new byte[regions.size()][];
+    for (int i = 0; i < content.length; ++i) {
+      HttpResponse<byte[]> response = CheckExecutor.getResult(responses.get(i));
+      if (response.statusCode() != PARTIAL_CONTENT
+          || response.body().length != regions.get(i).length()) {
+        return null;
+      }
+      content[i] = response.body();
+    }
+    return content;
+  }
+
+  private HttpRequest request(long offset, int length) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(url)
+            .timeout(TIMEOUT)
+            .header("Range", "bytes=" + offset + '-' + (offset + length - 1));
+    if (authorization != null) {
+      builder.header("Authorization", authorization);
+    }
+    for (int i = 0; i < headers.size(); i += 2) {
+      builder.header(headers.get(i), headers.get(i + 1));
+    }
+    return builder.GET().build();
+  }
+}
@@ -0,0 +1,127 @@
+package org.honton.chas.exists;
+
+import java.util.concurrent.CompletableFuture;
+import org.apache.maven.configuration.BeanConfigurator;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
+
+/**
+ * Checks files in a remote repository through the session's wagons. Concurrent identical requests
+ * from all checkers in the session share one request.
+ */
+class RemoteChecker implements ExistenceChecker {
+
+  // the defaults of the remote goal's parameters
+  private static final int MAX_CONCURRENCY = 16;
+  private static final int THROTTLE_RETRIES = 3;
+  private static final long THROTTLE_BACKOFF = 1000;
+  private static final int CIRCUIT_BREAKER_THRESHOLD = 3;
+  private static final long CIRCUIT_BREAKER_PROBE_INTERVAL = 30_000;
+  static final long MAX_RESPONSE_SIZE = 1 << 20;
+
+  private final RemoteOptions options;
+  private final String serverId;
+  private final String base;
+
+  /**
+   * @param options The connection parameters
+   * @param serverId The id of the server in settings.xml, or null
+   * @param url The base URL of the repository
+   */
+  RemoteChecker(RemoteOptions options, String serverId, String url) {
+    this.options = options;
+    // https://github.com/chonton/exists-maven-plugin/issues/41
+    this.serverId = serverId == null ? "" : serverId;
+    int last = url.length() - 1;
+    base = url.charAt(last) == '/' ? url.substring(0, last) : url;
+  }
+
+  static RemoteChecker create(
+      MavenSession session, PlexusContainer container, Log log, String url, String serverId)
+      throws ComponentLookupException {
+    WagonFactory factory =
+        WagonFactory.get(
+            session,
+            session.getSettings(),
+            container.lookup(SecDispatcher.class, "default"),
+            container.lookup(BeanConfigurator.class),
+            container);
+    return new RemoteChecker(
+        new RemoteOptions(
+            session,
+            log,
+            factory,
+            MAX_CONCURRENCY,
+            THROTTLE_RETRIES,
+            THROTTLE_BACKOFF,
+            CIRCUIT_BREAKER_THRESHOLD,
+            CIRCUIT_BREAKER_PROBE_INTERVAL,
+            MAX_RESPONSE_SIZE),
+        serverId,
+        url);
+  }
+
+  @Override
+  public String getLocation() {
+    return base;
+  }
+
+  @Override
+  public String getMetadataName() {
+    return "maven-metadata.xml";
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(String path) {
+    return CheckExecutor.supply(
+        () -> request("HEAD", path, wagonHelper -> wagonHelper.resourceExists(path)));
+  }
+
+  @Override
+  public CompletableFuture<String> checksum(String path) {
+    String checksumPath = path + ".sha1";
+    return CheckExecutor.supply(
+        () -> {
+          try {
+            return request(
+                "GET",
+                checksumPath,
+                wagonHelper -> wagonHelper.getContent(checksumPath, CheckSum::readChecksum));
+          } catch (ResourceDoesNotExistException e) {
+            return null;
+          }
+        });
+  }
+
+  /**
+   * Send a request, sharing the result with identical requests in flight.
+   *
+   * @param method Distinguishes requests of the same path
+   * @param path The repository relative path of the file
+   * @param request Sends the request with a connected wagon
+   */
+  <T> T request(String method, String path, WagonRequest<T> request) throws Exception {
+    return SingleFlight.get(options.session())
+        .execute(
+            method + " " + base + "/" + path,
+            () -> {
+              try (WagonHelper wagonHelper = new WagonHelper(options, serverId, base)) {
+                return request.apply(wagonHelper);
+              }
+            });
+  }
+
+  /** The prefix of cache keys for files of this repository, as seen with these settings. */
+  String cacheKey() {
+    return options.factory().fingerprint(serverId) + base + '/';
+  }
+
+  @FunctionalInterface
+  interface WagonRequest<T> {
+    T apply(WagonHelper wagonHelper) throws Exception;
+  }
+}
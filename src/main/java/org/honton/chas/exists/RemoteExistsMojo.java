@@ -1,37 +1,31 @@
 package org.honton.chas.exists;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
-import org.apache.maven.configuration.BeanConfigurationException;
-import org.apache.maven.configuration.BeanConfigurationRequest;
 import org.apache.maven.configuration.BeanConfigurator;
-import org.apache.maven.configuration.DefaultBeanConfigurationRequest;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.settings.Proxy;
-import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
-import org.apache.maven.wagon.ConnectionException;
-import org.apache.maven.wagon.StreamingWagon;
-import org.apache.maven.wagon.Wagon;
-import org.apache.maven.wagon.authentication.AuthenticationInfo;
-import org.apache.maven.wagon.proxy.ProxyInfo;
-import org.apache.maven.wagon.repository.Repository;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.codehaus.plexus.PlexusConstants;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.context.Context;
 import org.codehaus.plexus.context.ContextException;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
-import org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
-import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
 
 /**
  * Set a property if the artifact in the remote repository is same as the just built artifact. The
@@ -43,7 +37,7 @@ import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
  * @since 0.0.2
  */
 @Mojo(name = "remote", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
-public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualizable {
+public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualizable, Cloneable {
 
   /**
    * The property to set if the artifact exists in the deploy repository. The default property of
@@ -93,6 +87,142 @@ public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualiz
       defaultValue = "${project.distributionManagement.snapshotRepository.id}")
   private String snapshotServerId;
 
+  /**
+   * The maximum size in bytes of metadata and checksum responses read from the remote repository.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.maxResponseSize", defaultValue = "1048576")
+  private long maxResponseSize;
+
+  /**
+   * The maximum number of concurrent requests to one repository host from all executions in the
+   * build. Requests start with a lower limit which rises while the host keeps up and halves
+   * whenever the host responds with 429 (Too Many Requests) or 503 (Service Unavailable).
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.maxConcurrency", defaultValue = "16")
+  private int maxConcurrency;
+
+  /**
+   * The number of times a request throttled with 429 or 503 is retried.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.throttleRetries", defaultValue = "3")
+  private int throttleRetries;
+
+  /**
+   * The milliseconds to pause requests to a throttling host before the first retry. The pause
+   * doubles for each further retry. Range requests of sampledCompare instead pause for the delay of
+   * the response's Retry-After header, when it has one.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.throttleBackoff", defaultValue = "1000")
+  private long throttleBackoff;
+
+  /**
+   * The consecutive connection failures to a repository host, from all executions in the build,
+   * which open its circuit breaker. While open, checks against the host do not touch the network.
+   * Zero disables the circuit breaker.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.circuitBreakerThreshold", defaultValue = "3")
+  private int circuitBreakerThreshold;
+
+  /**
+   * The milliseconds between probes of a repository host with an open circuit breaker. A probe
+   * which reaches the host closes the circuit breaker.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.circuitBreakerProbeInterval", defaultValue = "30000")
+  private long circuitBreakerProbeInterval;
+
+  /**
+   * Fail the build when the repository host's circuit breaker is open. Otherwise, the artifact is
+   * assumed not to exist.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.failIfUnavailable", defaultValue = "true")
+  private boolean failIfUnavailable;
+
+  /**
+   * Repositories to check concurrently, instead of repository and snapshotRepository. Each
+   * repository has a url, an optional serverId, and an optional property to set if the artifact
+   * exists in that repository. The goal's property is set only if the artifact exists in every
+   * repository.
+   *
+   * @since 0.16.0
+   */
+  @Parameter private List<RepositoryTarget> repositories;
+
+  /**
+   * Answer existence from the listing of the version directory instead of requesting each file. The
+   * listing is fetched once and shared by all executions checking files of the same version. HTML
+   * indexes are understood. When the directory cannot be listed, as with repositories which do not
+   * serve directory indexes, each file is requested instead.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.useDirectoryListing", defaultValue = "false")
+  private boolean useDirectoryListing;
+
+  /**
+   * The URL of an existence cache service shared by many builds. Existence is looked up in the
+   * service before querying the repository, and results are published to the service afterward.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.cacheService")
+  private String cacheService;
+
+  /**
+   * The seconds that results published to the cache service stay valid. Existing release artifacts
+   * are immutable, so their results stay valid forever.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.cacheTtl", defaultValue = "300")
+  private long cacheTtl;
+
+  /**
+   * When the repository has no checksum file of the artifact, compare the content of the repository
+   * artifact with the build artifact. The repository artifact is streamed and the transfer is
+   * abandoned at the first difference, or as soon as its length differs.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.compareContent", defaultValue = "false")
+  private boolean compareContent;
+
+  /**
+   * Check the local repository before the remote repository. A release artifact which the local
+   * repository resolved from the remote repository, as recorded in its
+   * <em>_remote.repositories</em> file under the serverId, exists remotely with the same content.
+   * Its existence and checksum are answered without a request. Other artifacts are checked
+   * remotely.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.localFirst", defaultValue = "false")
+  private boolean localFirst;
+
+  /**
+   * Answer the existence of a release artifact which an earlier build in the same JVM, such as the
+   * maven daemon, found in the repository, without a request. Release artifacts are not expected to
+   * change, but an artifact deleted from the repository, or a repository URL pointing to a
+   * different server, goes unnoticed until the JVM exits.
+   *
+   * @since 0.16.0
+   */
+  @Parameter(property = "exists.reuseReleases", defaultValue = "false")
+  private boolean reuseReleases;
+
   @Parameter(defaultValue = "${settings}", required = true, readonly = true)
   private Settings settings;
 
@@ -104,6 +234,10 @@ public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualiz
 
   private PlexusContainer container;
 
+  // the checksum fetched while checking existence, and the artifact it belongs to
+  private String fetchedPath;
+  private String fetchedChecksum;
+
   @Override
   public void contextualize(Context context) throws ContextException {
     container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
@@ -114,17 +248,80 @@ public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualiz
     return property;
   }
 
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    try {
+      super.execute();
+    } finally {
+      AdaptiveLimiter.logThrottled(getSession(), getLog());
+    }
+  }
+
+  @Override
+  protected void checkRepositories() throws Exception {
+    if (repositories == null || repositories.isEmpty()) {
+      super.checkRepositories();
+      return;
+    }
+
+    // one thread per repository, so the total time is that of the slowest repository
+    ExecutorService executor = Executors.newFixedThreadPool(repositories.size());
+    try {
+      List<Future<Boolean>> checks = new ArrayList<>();
+      for (RepositoryTarget target : repositories) {
+        checks.add(executor.submit(forRepository(target)::isSame));
+      }
+      boolean everywhere = true;
+      for (int i = 0; i < checks.size(); ++i) {
+        boolean same = CheckExecutor.getResult(checks.get(i));
+        String targetProperty = repositories.get(i).getProperty();
+        if (same && targetProperty != null) {
+          setProperty(targetProperty, "true");
+        }
+        everywhere &= same;
+      }
+      if (everywhere) {
+        setProperty(getPropertyName(), "true");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // a copy of this execution which checks a single repository
+  private RemoteExistsMojo forRepository(RepositoryTarget target)
+      throws CloneNotSupportedException {
+    if (target.getUrl() == null) {
+      throw new IllegalArgumentException("<repositories><repository><url> not set");
+    }
+    RemoteExistsMojo copy = (RemoteExistsMojo) clone();
+    copy.repository = target.getUrl();
+    copy.snapshotRepository = target.getUrl();
+    copy.serverId = target.getServerId();
+    copy.snapshotServerId = target.getServerId();
+    copy.repositories = null;
+    return copy;
+  }
+
   @Override
   protected String getVersionedPath(SnapshotVersion version) {
     return gav.snapshotLocation(version.getVersion());
   }
 
   @Override
-  protected String getMavenMetadata(String path) throws Exception {
-    return getRemoteFile(path + "maven-metadata.xml");
+  protected Metadata getMavenMetadata(String path) throws Exception {
+    try {
+      String metadataPath = path + "maven-metadata.xml";
+      return getRemoteFile(
+          metadataPath, is -> readMetadata(getRepositoryLocation() + "/" + metadataPath, is));
+    } catch (CircuitBreaker.OpenException e) {
+      checkUnavailable(e);
+      throw e;
+    }
   }
 
-  private String getRepositoryBase() throws MojoFailureException {
+  @Override
+  protected String getRepositoryLocation() throws MojoFailureException {
     String base;
     if (isSnapshot()) {
       if (snapshotRepository == null) {
@@ -142,143 +339,175 @@ public class RemoteExistsMojo extends AbstractExistsMojo implements Contextualiz
 
   @Override
   protected boolean checkArtifactExists(String path) throws Exception {
-    String repositoryBase = getRepositoryBase();
-    getLog().info("Checking for artifact at " + repositoryBase + "/" + path);
-    try (WagonHelper wagonHelper = new WagonHelper(repositoryBase)) {
-      return wagonHelper.resourceExists(path);
+    String url = getRepositoryLocation() + "/" + path;
+    getLog().info("Checking for artifact at " + url);
+    if (localFirst && getTieredChecker().isTracked(path)) {
+      getLog().debug("Existence of " + url + " from local repository");
+      return true;
+    }
+    SharedResults shared = new SharedResults(getLog(), reuseReleases, cacheService, cacheTtl);
+    String cacheKey = getChecker().cacheKey() + path;
+    Boolean known = shared.lookup(Map.of(cacheKey, url)).get(cacheKey);
+    if (known != null) {
+      return known;
+    }
+    try {
+      boolean exists = queryRepository(path);
+      shared.publish(Map.of(cacheKey, exists));
+      return exists;
+    } catch (CircuitBreaker.OpenException e) {
+      checkUnavailable(e);
+      return false;
     }
   }
 
-  @Override
-  protected String getArtifactChecksum(String path) throws Exception {
-    return getRemoteFile(path + ".sha1");
-  }
-
-  private String getRemoteFile(String path) throws Exception {
-    // This method is only called to small files, so we can safely read all the content into
-    // memory!
-    String repositoryBase = getRepositoryBase();
-    getLog().debug("Fetching " + repositoryBase + path);
-    try (WagonHelper wagonHelper = new WagonHelper(repositoryBase)) {
-      return wagonHelper.getContent(path);
+  private boolean queryRepository(String path) throws Exception {
+    if (useDirectoryListing) {
+      int slash = path.lastIndexOf('/') + 1;
+      Set<String> listing = getDirectoryListing(path.substring(0, slash));
+      if (listing != null) {
+        return listing.contains(path.substring(slash));
+      }
+    }
+    if (isCmpChecksum() && !isSampledCompare()) {
+      // a published checksum implies the artifact exists; one request answers both questions
+      fetchedChecksum = fetchChecksum(path);
+      fetchedPath = path;
+      if (fetchedChecksum != null) {
+        return true;
+      }
+      getLog().debug("No checksum for " + path + ", checking the artifact");
     }
+    return CheckExecutor.getResult(getChecker().exists(path));
   }
 
-  private static String stripTrailingSlash(String path) {
-    int lastIdx = path.length() - 1;
-    return path.charAt(lastIdx) == '/' ? path.substring(0, lastIdx) : path;
+  /**
+   * Get the names of the files in a directory, sharing one listing among executions in the same
+   * phase.
+   *
+   * @return The file names, or null if the listing is not available
+   */
+  private Set<String> getDirectoryListing(String directory) throws Exception {
+    LruCache<String, Optional<Set<String>>> listings =
+        SessionState.get(getSession(), DirectoryListing.class, () -> new LruCache<>(1024));
+    String key = getRepositoryLocation() + '/' + directory + ' ' + getLifecyclePhase();
+    Optional<Set<String>> listing = listings.get(key);
+    if (listing == null) {
+      listing = Optional.ofNullable(fetchDirectoryListing(directory));
+      listings.put(key, listing);
+    }
+    return listing.orElse(null);
   }
 
-  private class WagonHelper implements AutoCloseable {
-
-    private final Wagon wagon;
-
-    WagonHelper(String uri) throws Exception {
-      String id = isSnapshot() ? snapshotServerId : serverId;
-      // https://github.com/chonton/exists-maven-plugin/issues/41
-      wagon = connectWagon(id == null ? "" : id, uri);
+  // many repositories answer a directory with 404, or with a page that is not a listing
+  private Set<String> fetchDirectoryListing(String directory) throws Exception {
+    try {
+      Set<String> names = getRemoteFile(directory, DirectoryListing::parse);
+      if (DirectoryListing.isListingOf(names, directory)) {
+        return names;
+      }
+      getLog().debug("No listing of " + directory + ", requesting each file");
+    } catch (ResourceDoesNotExistException e) {
+      getLog().debug("No listing of " + directory + ", requesting each file");
+    } catch (CircuitBreaker.OpenException e) {
+      throw e;
+    } catch (Exception e) {
+      getLog().debug("Could not list " + directory + ", requesting each file: " + e.getMessage());
     }
+    return null;
+  }
 
-    Wagon connectWagon(String serverId, String url) throws Exception {
-      Repository repo = new Repository(serverId, url);
-
-      Wagon wgn = container.lookup(Wagon.class, repo.getProtocol());
-      configureWagon(wgn);
-
-      wgn.connect(repo, getAuthInfo(serverId), getProxyInfo());
-      return wgn;
+  // an open circuit breaker fails the build, or reads as a missing artifact
+  private void checkUnavailable(CircuitBreaker.OpenException e) throws MojoExecutionException {
+    if (failIfUnavailable) {
+      throw new MojoExecutionException(e.getMessage(), e);
     }
+    getLog().warn(e.getMessage() + ", assuming artifact does not exist");
+  }
 
-    /* begin
-    https://github.com/chonton/exists-maven-plugin/issues/16,
-    https://github.com/chonton/exists-maven-plugin/issues/27 */
-    void configureWagon(Wagon wagon) throws BeanConfigurationException {
-      Server server = settings.getServer(serverId);
-      if (server == null) {
-        getLog().debug("no server for id " + serverId);
-        return;
-      }
-
-      Object serverConfiguration = server.getConfiguration();
-      if (serverConfiguration == null) {
-        getLog().debug("no server configuration");
-        return;
-      }
-
-      BeanConfigurationRequest bcr = new DefaultBeanConfigurationRequest();
-      bcr.setBean(wagon);
-      bcr.setConfiguration(serverConfiguration);
-      beanConfigurator.configureBean(bcr);
+  @Override
+  protected String getArtifactChecksum(String path) throws Exception {
+    String checksum = path.equals(fetchedPath) ? fetchedChecksum : fetchChecksum(path);
+    if (checksum == null && !compareContent) {
+      throw new ResourceDoesNotExistException("No checksum of " + path + " in repository");
     }
+    return checksum;
+  }
 
-    /* end
-    https://github.com/chonton/exists-maven-plugin/issues/16,
-    https://github.com/chonton/exists-maven-plugin/issues/27 */
+  // the published checksum of an artifact, or null if the repository has none
+  private String fetchChecksum(String path) throws Exception {
+    getLog().debug("Fetching " + getRepositoryLocation() + "/" + path + ".sha1");
+    ExistenceChecker checker = localFirst ? getTieredChecker() : getChecker();
+    return CheckExecutor.getResult(checker.checksum(path));
+  }
 
-    ProxyInfo getProxyInfo() {
-      Proxy proxy = settings.getActiveProxy();
-      if (proxy == null) {
-        return null;
-      }
+  @Override
+  protected boolean contentMatches(String path, Path buildPath) throws Exception {
+    getLog().info("Comparing " + buildPath + " with " + getRepositoryLocation() + "/" + path);
+    // executions comparing different build files must not share a transfer
+    return getChecker()
+        .request(
+            "COMPARE " + buildPath,
+            path,
+            wagonHelper -> wagonHelper.contentMatches(path, buildPath));
+  }
 
-      ProxyInfo proxyInfo = new ProxyInfo();
-      proxyInfo.setHost(proxy.getHost());
-      proxyInfo.setType(proxy.getProtocol());
-      proxyInfo.setPort(proxy.getPort());
-      proxyInfo.setNonProxyHosts(proxy.getNonProxyHosts());
-      proxyInfo.setUserName(proxy.getUsername());
-      proxyInfo.setPassword(proxy.getPassword());
-      return proxyInfo;
+  @Override
+  protected Boolean samplesMatch(String path, Path buildPath, SampledComparison comparison)
+      throws Exception {
+    String url = getRepositoryLocation() + "/" + path;
+    if (!url.startsWith("http:") && !url.startsWith("https:")) {
+      return null;
     }
+    getLog().info("Comparing samples of " + buildPath + " with " + url);
+    String id = isSnapshot() ? snapshotServerId : serverId;
+    String server = id == null ? "" : id;
+    RemoteOptions options = getRemoteOptions();
+    WagonFactory factory = options.factory();
+    return comparison.matches(
+        buildPath,
+        new RangeSource(
+            url,
+            factory.getAuthenticationInfo(server),
+            factory.getHttpHeaders(server),
+            factory.getProxyInfo(),
+            HostGuard.forUrl(options, url)));
+  }
 
-    AuthenticationInfo getAuthInfo(String serverId) throws SecDispatcherException {
-      Server server = settings.getServer(serverId);
-      if (server == null) {
-        return null;
-      }
+  private <T> T getRemoteFile(String path, ContentParser<T> parser) throws Exception {
+    // This method is only called for small files; responses over maxResponseSize are refused
+    getLog().debug("Fetching " + getRepositoryLocation() + "/" + path);
+    return getChecker().request("GET", path, wagonHelper -> wagonHelper.getContent(path, parser));
+  }
 
-      /* begin https://github.com/chonton/exists-maven-plugin/issues/22 */
-      if (securityDispatcher instanceof DefaultSecDispatcher) {
-        ((DefaultSecDispatcher) securityDispatcher)
-            .setConfigurationFile("~/.m2/settings-security.xml");
-      }
-      /* end https://github.com/chonton/exists-maven-plugin/issues/22 */
-
-      AuthenticationInfo authInfo = new AuthenticationInfo();
-      authInfo.setUserName(server.getUsername());
-      authInfo.setPassword(securityDispatcher.decrypt(server.getPassword()));
-      authInfo.setPassphrase(server.getPassphrase());
-      authInfo.setPrivateKey(server.getPrivateKey());
-      return authInfo;
-    }
+  // the checker of the repository holding this execution's artifact
+  private RemoteChecker getChecker() throws MojoFailureException {
+    return new RemoteChecker(
+        getRemoteOptions(), isSnapshot() ? snapshotServerId : serverId, getRepositoryLocation());
+  }
 
-    boolean resourceExists(String path) throws Exception {
-      return wagon.resourceExists(path);
-    }
+  private TieredChecker getTieredChecker() throws MojoFailureException {
+    return new TieredChecker(
+        Path.of(getSession().getLocalRepository().getBasedir()),
+        isSnapshot() ? snapshotServerId : serverId,
+        getChecker());
+  }
 
-    String getContent(String resourceName) throws Exception {
-      byte[] bytes;
-      if (wagon instanceof StreamingWagon) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ((StreamingWagon) wagon).getToStream(resourceName, baos);
-        bytes = baos.toByteArray();
-      } else {
-        Path tmpFilePath = Files.createTempFile("checksum", null);
-        File tmpFile = tmpFilePath.toFile();
-        tmpFile.deleteOnExit();
-        wagon.get(resourceName, tmpFile);
-        bytes = Files.readAllBytes(tmpFilePath);
-      }
-      return new String(bytes, StandardCharsets.ISO_8859_1);
-    }
+  private RemoteOptions getRemoteOptions() {
+    return new RemoteOptions(
+        getSession(),
+        getLog(),
+        WagonFactory.get(getSession(), settings, securityDispatcher, beanConfigurator, container),
+        maxConcurrency,
+        throttleRetries,
+        throttleBackoff,
+        circuitBreakerThreshold,
+        circuitBreakerProbeInterval,
+        maxResponseSize);
+  }
 
-    @Override
-    public void close() {
-      try {
-        wagon.disconnect();
-      } catch (ConnectionException e) {
-        getLog().debug("Error disconnecting wagon - ignored", e);
-      }
-    }
+  private static String stripTrailingSlash(String path) {
+    int lastIdx = path.length() - 1;
+    return path.charAt(lastIdx) == '/' ? path.substring(0, lastIdx) : path;
   }
 }
@@ -0,0 +1,16 @@
+package org.honton.chas.exists;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+
+/** The connection parameters of a goal which sends requests to remote servers. */
+record RemoteOptions(
+    MavenSession session,
+    Log log,
+    WagonFactory factory,
+    int maxConcurrency,
+    int throttleRetries,
+    long throttleBackoff,
+    int circuitBreakerThreshold,
+    long circuitBreakerProbeInterval,
+    long maxResponseSize) {}
@@ -0,0 +1,247 @@
+package org.honton.chas.exists;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A sorted index of repository paths and their SHA-1 checksums, searched through a memory mapping.
+ * The index records the repository it was written from, and answers only for that repository.
+ *
+ * <pre>
+ * int magic, int version, int count, unsigned short repository length, UTF-8 repository,
+ * int[count] record offsets
+ * record: unsigned short path length, UTF-8 path, 20 byte SHA-1
+ * </pre>
+ */
+class RepositoryIndex {
+  private static final int MAGIC = 0x45584958;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 14;
+  private static final int CHECKSUM_SIZE = 20;
+  private static final int MAX_PATH_LENGTH = 0xffff;
+
+  private static final ThreadLocal<CheckSum> CHECK_SUMS =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return new CheckSum();
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
+  private final ByteBuffer buffer;
+  private final int count;
+  private final String repository;
+  private final int offsets;
+
+  private RepositoryIndex(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("not an exists repository index");
+    }
+    this.buffer = buffer;
+    count = buffer.getInt(8);
+    byte[] name = new byte[buffer.getShort(12) & MAX_PATH_LENGTH];
+    buffer.get(HEADER_SIZE, name);
+    repository = new String(name, StandardCharsets.UTF_8);
+    offsets = HEADER_SIZE + name.length;
+  }
+
+  /** Memory map an index written by {@link #write(Path, Path)}. */
+  static RepositoryIndex open(Path indexFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new RepositoryIndex(mapped);
+    }
+  }
+
+  /**
+   * Scan a repository directory tree and write the index of its artifacts. An earlier index written
+   * inside the repository is not itself indexed.
+   *
+   * @param repository The directory tree to scan
+   * @param location The URL of the repository which the tree mirrors, or the tree's own location
+   * @param indexFile The index to write
+   * @return The number of indexed artifacts
+   * @throws IOException if the index would exceed the 2 GB that a mapping can address
+   */
+  static int write(Path repository, String location, Path indexFile) throws IOException {
+    byte[] name = stripTrailingSlash(location).getBytes(StandardCharsets.UTF_8);
+    if (name.length > MAX_PATH_LENGTH) {
+      throw new IllegalArgumentException(location + " is too long to index");
+    }
+    Path self = indexFile.toAbsolutePath().normalize();
+    List<Entry> entries;
+    try (Stream<Path> paths = Files.walk(repository)) {
+      entries =
+          paths
+              .filter(
+                  path ->
+                      Files.isRegularFile(path)
+                          && isArtifact(path.getFileName().toString())
+                          && !path.toAbsolutePath().normalize().equals(self))
+              .collect(Collectors.toList())
+              .parallelStream()
+              .map(path -> new Entry(relativePath(repository, path), checksum(path)))
+              .sorted()
+              .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    long size = HEADER_SIZE + name.length + (long) Integer.BYTES * entries.size();
+    for (Entry entry : entries) {
+      size += Short.BYTES + entry.path.length + CHECKSUM_SIZE;
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException(
+          "index of " + entries.size() + " artifacts would exceed " + Integer.MAX_VALUE + " bytes");
+    }
+
+    Path parent = indexFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      out.writeShort(name.length);
+      out.write(name);
+      int offset = HEADER_SIZE + name.length + Integer.BYTES * entries.size();
+      for (Entry entry : entries) {
+        out.writeInt(offset);
+        offset += Short.BYTES + entry.path.length + CHECKSUM_SIZE;
+      }
+      for (Entry entry : entries) {
+        out.writeShort(entry.path.length);
+        out.write(entry.path);
+        out.write(entry.checksum);
+      }
+    }
+    return entries.size();
+  }
+
+  // checksums, signatures and resolver bookkeeping are not artifacts
+  private static boolean isArtifact(String fileName) {
+    return !fileName.startsWith("maven-metadata")
+        && !fileName.equals("_remote.repositories")
+        && !fileName.equals("resolver-status.properties")
+        && !fileName.endsWith(".lastUpdated")
+        && !fileName.endsWith(".asc")
+        && !fileName.endsWith(".md5")
+        && !fileName.endsWith(".sha1")
+        && !fileName.endsWith(".sha256")
+        && !fileName.endsWith(".sha512");
+  }
+
+  private static byte[] relativePath(Path repository, Path path) {
+    String relative = repository.relativize(path).toString().replace('\\', '/');
+    byte[] bytes = relative.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_PATH_LENGTH) {
+      throw new IllegalArgumentException(relative + " is too long to index");
+    }
+    return bytes;
+  }
+
+  private static byte[] checksum(Path path) {
+    try {
+      return CHECK_SUMS.get().getChecksumBytes(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String stripTrailingSlash(String location) {
+    return location.endsWith("/") ? location.substring(0, location.length() - 1) : location;
+  }
+
+  int size() {
+    return count;
+  }
+
+  /** The URL or location of the repository the index was written from. */
+  String getRepository() {
+    return repository;
+  }
+
+  /** Whether the index answers for a repository. */
+  boolean isOf(String location) {
+    return repository.equals(stripTrailingSlash(location));
+  }
+
+  boolean contains(String path) {
+    return find(path) >= 0;
+  }
+
+  /**
+   * Get the checksum of an artifact.
+   *
+   * @param path The repository relative path of the artifact
+   * @return The hex encoded SHA-1 checksum, or null if the artifact is not in the index
+   */
+  String checksum(String path) {
+    int offset = find(path);
+    if (offset < 0) {
+      return null;
+    }
+    byte[] checksum = new byte[CHECKSUM_SIZE];
+    buffer.get(offset + Short.BYTES + (buffer.getShort(offset) & MAX_PATH_LENGTH), checksum);
+    return CheckSum.hexEncode(checksum);
+  }
+
+  // binary search of the sorted records; returns the record offset or -1
+  private int find(String path) {
+    byte[] key = path.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int offset = buffer.getInt(offsets + Integer.BYTES * mid);
+      int cmp = compare(offset, key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  private int compare(int offset, byte[] key) {
+    int length = buffer.getShort(offset) & MAX_PATH_LENGTH;
+    int start = offset + Short.BYTES;
+    int common = Math.min(length, key.length);
+    for (int i = 0; i < common; ++i) {
+      int cmp = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  private record Entry(byte[] path, byte[] checksum) implements Comparable<Entry> {
+    @Override
+    public int compareTo(Entry other) {
+      return Arrays.compareUnsigned(path, other.path);
+    }
+  }
+}
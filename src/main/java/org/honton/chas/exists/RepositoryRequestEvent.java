@@ -0,0 +1,54 @@
+package org.honton.chas.exists;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for a request to a remote repository. */
+@Name("org.honton.chas.exists.RepositoryRequest")
+@Label("Repository Request")
+@Category({"Maven", "Exists"})
+@Description("A HEAD or GET of a resource in a remote repository")
+class RepositoryRequestEvent extends jdk.jfr.Event {
+  static final int OK = 200;
+  static final int NOT_FOUND = 404;
+
+  @Label("Method")
+  String method;
+
+  @Label("Repository")
+  String repository;
+
+  @Label("Path")
+  String path;
+
+  @Label("Status")
+  @Description("The HTTP status, or -1 when the request failed without a status")
+  int status;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  /** Start timing a request. */
+  static RepositoryRequestEvent start(String method, String path) {
+    RepositoryRequestEvent event = new RepositoryRequestEvent();
+    event.begin();
+    event.method = method;
+    event.path = path;
+    return event;
+  }
+
+  /** Stop timing the request, and record it if the event is enabled. */
+  void finish(String repository, int status, long bytes) {
+    end();
+    if (shouldCommit()) {
+      this.repository = repository;
+      this.status = status;
+      this.bytes = bytes;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.honton.chas.exists;
+
+/**
+ * A remote location, either a repository checked by the remote goal's repositories parameter or a
+ * resource checked by the urls goal.
+ *
+ * @since 0.16.0
+ */
+public class RepositoryTarget {
+  /**
+   * The URL of the repository, used for both release and snapshot artifacts, or of the resource.
+   */
+  private String url;
+
+  /** The server ID to use for authentication and proxy settings. */
+  private String serverId;
+
+  /** The property to set if the artifact exists in this repository, or the resource exists. */
+  private String property;
+
+  public RepositoryTarget() {}
+
+  RepositoryTarget(String url, String serverId, String property) {
+    this.url = url;
+    this.serverId = serverId;
+    this.property = property;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public String getServerId() {
+    return serverId;
+  }
+
+  public String getProperty() {
+    return property;
+  }
+}
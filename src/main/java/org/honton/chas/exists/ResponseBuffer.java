@@ -0,0 +1,93 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collect a repository response into pooled chunks, refusing responses larger than a maximum size.
+ * The collected content is read back without copying and the chunks are returned to the pool on
+ * close.
+ */
+class ResponseBuffer extends OutputStream {
+  private final List<byte[]> chunks = new ArrayList<>();
+  private final long maxSize;
+  private int size;
+
+  ResponseBuffer(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  static IOException tooLarge(String resourceName, long maxSize) {
+    return new IOException(resourceName + " exceeds maximum response size of " + maxSize);
+  }
+
+  int size() {
+    return size;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (size + (long) len > maxSize) {
+      throw tooLarge("response", maxSize);
+    }
+    while (len > 0) {
+      int offset = size % BufferPool.CHUNK_SIZE;
+      if (offset == 0) {
+        chunks.add(BufferPool.acquire());
+      }
+      int count = Math.min(len, BufferPool.CHUNK_SIZE - offset);
+      System.arraycopy(b, off, chunks.get(chunks.size() - 1), offset, count);
+      size += count;
+      off += count;
+      len -= count;
+    }
+  }
+
+  InputStream getInputStream() {
+    return new InputStream() {
+      private int position;
+
+      @Override
+      public int read() {
+        if (position >= size) {
+          return -1;
+        }
+        byte b = chunks.get(position / BufferPool.CHUNK_SIZE)[position % BufferPool.CHUNK_SIZE];
+        ++position;
+        return b & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (position >= size) {
+          return -1;
+        }
+        int offset = position % BufferPool.CHUNK_SIZE;
+        int count = Math.min(Math.min(len, size - position), BufferPool.CHUNK_SIZE - offset);
+        System.arraycopy(chunks.get(position / BufferPool.CHUNK_SIZE), offset, b, off, count);
+        position += count;
+        return count;
+      }
+
+      @Override
+      public int available() {
+        return size - position;
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    chunks.forEach(BufferPool::release);
+    chunks.clear();
+    size = 0;
+  }
+}
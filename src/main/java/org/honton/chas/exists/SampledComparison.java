@@ -0,0 +1,131 @@
+package org.honton.chas.exists;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compare two copies of a large file by their sizes and a few sampled regions: the head, the tail,
+ * and regions evenly spaced between. Files no longer than all regions together are compared
+ * completely. A change which alters neither the size nor any sampled region goes unnoticed, so this
+ * trades certainty for reading a small, fixed part of each file.
+ */
+class SampledComparison {
+
+  /** Supplies the size and regions of the other copy. */
+  interface Source {
+    /**
+     * @return The size of the copy, or -1 if the size is not available
+     */
+    long size() throws Exception;
+
+    /**
+     * Read regions of the copy.
+     *
+     * @return The content of each region, or null if the regions are not available
+     */
+    byte[][] read(List<Region> regions) throws Exception;
+  }
+
+  /** A part of a file. */
+  record Region(long offset, int length) {}
+
+  static final int MAX_COUNT = 1024;
+  static final int MAX_SAMPLED_BYTES = 64 << 20;
+
+  private final int count;
+  private final int regionSize;
+
+  /**
+   * @param count The number of regions, from two to {@link #MAX_COUNT}
+   * @param regionSize The length of each region, reduced so that all regions together are at most
+   *     {@link #MAX_SAMPLED_BYTES}
+   */
+  SampledComparison(int count, int regionSize) {
+    this.count = Math.min(MAX_COUNT, Math.max(2, count));
+    this.regionSize = Math.min(MAX_SAMPLED_BYTES / this.count, Math.max(1, regionSize));
+  }
+
+  /** The regions sampled from a file of a given size. */
+  List<Region> regions(long size) {
+    // count * regionSize is at most MAX_SAMPLED_BYTES, so a file this small fits one region
+    if (size <= (long) count * regionSize) {
+      return List.of(new Region(0, (int) size));
+    }
+    List<Region> regions = new ArrayList<>(count);
+    long last = size - regionSize;
+    for (int i = 0; i < count; ++i) {
+      regions.add(new Region(last * i / (count - 1), regionSize));
+    }
+    return regions;
+  }
+
+  /**
+   * Compare a file with another copy.
+   *
+   * @param file The local file
+   * @param other The other copy
+   * @return Whether the sizes and regions match, or null if the other copy cannot supply them
+   */
+  Boolean matches(Path file, Source other) throws Exception {
+    long otherSize = other.size();
+    if (otherSize < 0) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() != otherSize) {
+        return false;
+      }
+      List<Region> regions = regions(otherSize);
+      byte[][] otherRegions = other.read(regions);
+      if (otherRegions == null) {
+        return null;
+      }
+      for (int i = 0; i < regions.size(); ++i) {
+        if (!Arrays.equals(read(channel, regions.get(i)), otherRegions[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** A copy in a local file. */
+  static Source of(Path file) {
+    return new Source() {
+      @Override
+      public long size() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          return channel.size();
+        }
+      }
+
+      @Override
+      public byte[][] read(List<Region> regions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          byte[][] content = new byte[regions.size()][];
+          for (int i = 0; i < content.length; ++i) {
+            content[i] = SampledComparison.read(channel, regions.get(i));
+          }
+          return content;
+        }
+      }
+    };
+  }
+
+  private static byte[] read(FileChannel channel, Region region) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(region.length());
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, region.offset() + buffer.position()) < 0) {
+        throw new EOFException("file ends before " + (region.offset() + region.length()));
+      }
+    }
+    return buffer.array();
+  }
+}
@@ -0,0 +1,22 @@
+package org.honton.chas.exists;
+
+import java.util.function.Supplier;
+import org.apache.maven.execution.MavenSession;
+
+/** State shared by all executions of this plugin within a build session. */
+final class SessionState {
+
+  private SessionState() {}
+
+  /**
+   * Get the session's instance of some shared state, creating it on first use.
+   *
+   * @param session The build session
+   * @param owner The class owning the state, used as the key
+   * @param factory Creates the state on first use
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T get(MavenSession session, Class<?> owner, Supplier<T> factory) {
+    return (T) session.getRepositorySession().getData().computeIfAbsent(owner, factory::get);
+  }
+}
@@ -0,0 +1,101 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Existence results shared beyond one execution: release artifacts which earlier builds in this JVM
+ * found, when reuseReleases is set, and the existence cache service shared by many builds. Results
+ * are keyed by {@link RemoteChecker#cacheKey()} and path, since they depend upon the credentials
+ * and proxy used to find them.
+ */
+class SharedResults {
+  private final Log log;
+  private final boolean reuseReleases;
+  private final String cacheService;
+  private final long cacheTtl;
+
+  /**
+   * @param log Receives the source of each shared result
+   * @param reuseReleases Whether releases found by earlier builds in this JVM are trusted
+   * @param cacheService The URL of the existence cache service, or null
+   * @param cacheTtl The seconds that results published to the service stay valid
+   */
+  SharedResults(Log log, boolean reuseReleases, String cacheService, long cacheTtl) {
+    this.log = log;
+    this.reuseReleases = reuseReleases;
+    this.cacheService = cacheService;
+    this.cacheTtl = cacheTtl;
+  }
+
+  /**
+   * Look up earlier results, with one request to the cache service.
+   *
+   * @param urls The URL of each resource, by key
+   * @return Whether the resources exist, for the keys known
+   */
+  Map<String, Boolean> lookup(Map<String, String> urls) {
+    Map<String, Boolean> known = new HashMap<>();
+    if (reuseReleases) {
+      urls.forEach(
+          (key, url) -> {
+            if (CachedChecker.isKnownRelease(key)) {
+              log.info("Existence of " + url + " from an earlier build");
+              known.put(key, Boolean.TRUE);
+            }
+          });
+    }
+    if (cacheService != null && known.size() < urls.size()) {
+      try {
+        Map<String, Boolean> cached =
+            new ExistenceCacheClient(cacheService)
+                .lookup(urls.keySet().stream().filter(k -> !known.containsKey(k)).toList());
+        cached.forEach(
+            (key, exists) -> {
+              log.debug("Existence of " + urls.get(key) + " from cache service");
+              known.put(key, exists);
+            });
+      } catch (IOException e) {
+        log.warn("Cache service lookup failed: " + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return known;
+  }
+
+  /**
+   * Record results found by querying the repositories.
+   *
+   * @param results Whether the resources exist, by key
+   */
+  void publish(Map<String, Boolean> results) {
+    // an existing release never changes; everything else may
+    Map<String, Boolean> immutable = new HashMap<>();
+    Map<String, Boolean> mutable = new HashMap<>();
+    results.forEach(
+        (key, exists) ->
+            (exists && CachedChecker.isRelease(key) ? immutable : mutable).put(key, exists));
+    if (reuseReleases) {
+      immutable.keySet().forEach(CachedChecker::rememberRelease);
+    }
+    if (cacheService == null || results.isEmpty()) {
+      return;
+    }
+    try {
+      ExistenceCacheClient client = new ExistenceCacheClient(cacheService);
+      if (!immutable.isEmpty()) {
+        client.publish(immutable, ExistenceCacheServer.FOREVER);
+      }
+      if (!mutable.isEmpty()) {
+        client.publish(mutable, cacheTtl * 1000);
+      }
+    } catch (IOException e) {
+      log.warn("Cache service publish failed: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
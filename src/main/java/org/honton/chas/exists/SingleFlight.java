@@ -0,0 +1,61 @@
+package org.honton.chas.exists;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Coalesce concurrent identical requests. The first caller for a key performs the request; callers
+ * arriving while it is in flight wait for and share its result or failure. Requests for different
+ * keys never block each other.
+ */
+class SingleFlight {
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /** Get the session's single-flight instance. */
+  static SingleFlight get(MavenSession session) {
+    return SessionState.get(session, SingleFlight.class, SingleFlight::new);
+  }
+
+  /**
+   * Perform a request, or join the identical request already in flight.
+   *
+   * @param key Identifies the request, e.g. method and absolute resource URL
+   * @param request Performs the request
+   */
+  @SuppressWarnings("unchecked")
+  <T> T execute(String key, Callable<T> request) throws Exception {
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+    if (leader != null) {
+      return (T) join(leader);
+    }
+    try {
+      T result = request.call();
+      flight.complete(result);
+      return result;
+    } catch (Throwable t) {
+      // followers must be released even when the request fails with an Error
+      flight.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  private static Object join(CompletableFuture<Object> leader) throws Exception {
+    try {
+      return leader.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception exception) {
+        throw exception;
+      }
+      throw (Error) cause;
+    }
+  }
+}
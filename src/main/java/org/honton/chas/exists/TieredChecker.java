@@ -0,0 +1,105 @@
+package org.honton.chas.exists;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers from the local repository when it holds a release file resolved from the remote
+ * repository, and asks the remote repository otherwise. The resolver records the id of the
+ * repository each file came from in the <em>_remote.repositories</em> file of the version
+ * directory, as lines of {@code fileName>repositoryId=}. A release never changes, so a file
+ * recorded with the remote repository's id exists there, with the same content.
+ */
+class TieredChecker implements ExistenceChecker {
+  static final String TRACKING_FILE = "_remote.repositories";
+
+  private final Path localRepository;
+  private final String repositoryId;
+  private final ExistenceChecker remote;
+
+  /**
+   * @param localRepository The base directory of the local repository
+   * @param repositoryId The id of the remote repository; files installed by local builds have an
+   *     empty id, so an empty id never matches
+   * @param remote The checker asked about files the local repository does not know
+   */
+  TieredChecker(Path localRepository, String repositoryId, ExistenceChecker remote) {
+    this.localRepository = localRepository;
+    this.repositoryId = repositoryId;
+    this.remote = remote;
+  }
+
+  @Override
+  public String getLocation() {
+    return remote.getLocation();
+  }
+
+  @Override
+  public String getMetadataName() {
+    return remote.getMetadataName();
+  }
+
+  @Override
+  public CompletableFuture<Boolean> exists(String path) {
+    return CheckExecutor.supply(() -> isTracked(path))
+        .thenCompose(
+            tracked -> tracked ? CompletableFuture.completedFuture(true) : remote.exists(path));
+  }
+
+  @Override
+  public CompletableFuture<String> checksum(String path) {
+    return CheckExecutor.supply(() -> isTracked(path) ? localChecksum(path) : null)
+        .thenCompose(
+            checksum ->
+                checksum != null
+                    ? CompletableFuture.completedFuture(checksum)
+                    : remote.checksum(path));
+  }
+
+  /** Whether the local repository holds the release file, resolved from the remote repository. */
+  boolean isTracked(String path) throws IOException {
+    if (repositoryId == null
+        || repositoryId.isEmpty()
+        || path.contains("-SNAPSHOT/")
+        || path.contains("maven-metadata")) {
+      return false;
+    }
+    Path file = localRepository.resolve(path);
+    if (!Files.isReadable(file)) {
+      return false;
+    }
+    String marker = file.getFileName() + ">" + repositoryId + "=";
+    try (BufferedReader reader =
+        Files.newBufferedReader(file.resolveSibling(TRACKING_FILE), StandardCharsets.UTF_8)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        if (line.trim().equals(marker)) {
+          return true;
+        }
+      }
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+    return false;
+  }
+
+  // the checksum stored beside the resolved file, or the digest of the file
+  private String localChecksum(String path) throws Exception {
+    Path file = localRepository.resolve(path);
+    Path stored = file.resolveSibling(file.getFileName() + ".sha1");
+    if (Files.isReadable(stored)) {
+      try (InputStream is = Files.newInputStream(stored)) {
+        String checksum = CheckSum.readChecksum(is);
+        if (!checksum.isEmpty()) {
+          return checksum;
+        }
+      }
+    }
+    return new CheckSum().getChecksum(file);
+  }
+}
@@ -0,0 +1,35 @@
+package org.honton.chas.exists;
+
+import java.util.List;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Set properties if http resources exist. All resources are checked concurrently, using the
+ * credentials and proxy of the settings. The urls may reference project properties, such as
+ * <em>${project.version}</em>, which are interpolated before the goal executes.
+ *
+ * @since 0.16.0
+ */
+@Mojo(name = "urls", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
+public class UrlExistsMojo extends AbstractBatchExistsMojo {
+
+  /**
+   * The resources to check. Each resource has a <em>url</em>, an optional <em>serverId</em> for
+   * authentication and proxy settings, and an optional <em>property</em> to set if the resource
+   * exists.
+   */
+  @Parameter(required = true)
+  private List<RepositoryTarget> resources;
+
+  @Override
+  protected List<RepositoryTarget> getTargets() {
+    for (RepositoryTarget resource : resources) {
+      if (resource.getUrl() == null) {
+        throw new IllegalArgumentException("<resources><resource><url> not set");
+      }
+    }
+    return resources;
+  }
+}
@@ -0,0 +1,80 @@
+package org.honton.chas.exists;
+
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Find the next version of a series. A series is given by a starting version, whose last number
+ * before any qualifier increases, e.g. 1.4.0 or 2.0.3-java11; or by a pattern with one {@code *}
+ * standing for the increasing number, e.g. 1.4.* which starts at 1.4.0. A -SNAPSHOT suffix is
+ * ignored.
+ */
+class VersionFinder {
+  private static final Pattern LAST_NUMBER = Pattern.compile("(\\d+)\\D*$");
+  private static final String SNAPSHOT = "-SNAPSHOT";
+  // longer runs of digits overflow a long
+  private static final int MAX_DIGITS = 18;
+
+  private final String prefix;
+  private final String suffix;
+  private final long start;
+
+  VersionFinder(String series) {
+    String base =
+        series.endsWith(SNAPSHOT)
+            ? series.substring(0, series.length() - SNAPSHOT.length())
+            : series;
+    int star = base.indexOf('*');
+    if (star >= 0) {
+      prefix = base.substring(0, star);
+      suffix = base.substring(star + 1);
+      if (suffix.indexOf('*') >= 0) {
+        throw new IllegalArgumentException(series + " has more than one *");
+      }
+      start = 0;
+    } else {
+      int dash = base.indexOf('-');
+      String release = dash < 0 ? base : base.substring(0, dash);
+      Matcher matcher = LAST_NUMBER.matcher(release);
+      if (!matcher.find() || matcher.group(1).length() > MAX_DIGITS) {
+        throw new IllegalArgumentException(series + " has no number to increase");
+      }
+      prefix = base.substring(0, matcher.start(1));
+      suffix = base.substring(matcher.end(1));
+      start = Long.parseLong(matcher.group(1));
+    }
+  }
+
+  /**
+   * Get the version following the highest version of the series, and not before the start of the
+   * series. Versions outside of the series are ignored.
+   *
+   * @param versions The versions already used
+   * @return The next version
+   */
+  String next(Collection<String> versions) {
+    long next = start;
+    for (String version : versions) {
+      long number = number(version);
+      if (number >= next) {
+        next = number + 1;
+      }
+    }
+    return prefix + next + suffix;
+  }
+
+  // the increasing number of a version in the series, or -1 if the version is not in the series
+  private long number(String version) {
+    if (version.length() <= prefix.length() + suffix.length()
+        || !version.startsWith(prefix)
+        || !version.endsWith(suffix)) {
+      return -1;
+    }
+    String digits = version.substring(prefix.length(), version.length() - suffix.length());
+    if (digits.length() > MAX_DIGITS || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+      return -1;
+    }
+    return Long.parseLong(digits);
+  }
+}
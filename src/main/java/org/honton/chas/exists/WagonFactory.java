@@ -0,0 +1,263 @@
+package org.honton.chas.exists;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.maven.configuration.BeanConfigurationException;
+import org.apache.maven.configuration.BeanConfigurationRequest;
+import org.apache.maven.configuration.BeanConfigurator;
+import org.apache.maven.configuration.DefaultBeanConfigurationRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.wagon.ConnectionException;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.repository.Repository;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
+
+/**
+ * Connect wagons to repositories. Authentication is decrypted once per server id, and configured
+ * wagons are pooled per server id and protocol, so that repeated checks skip the settings lookup,
+ * decryption and reflective configuration. The pool lives as long as the session's factory; a wagon
+ * belongs to the container of the build which created it.
+ */
+class WagonFactory {
+  private static final int MAX_IDLE = 8;
+
+  private final Settings settings;
+  private final SecDispatcher securityDispatcher;
+  private final BeanConfigurator beanConfigurator;
+  private final PlexusContainer container;
+  private final ProxyInfo proxyInfo;
+  private final ConcurrentMap<String, Optional<AuthenticationInfo>> authentication =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Queue<Wagon>> idleWagons = new ConcurrentHashMap<>();
+
+  WagonFactory(
+      Settings settings,
+      SecDispatcher securityDispatcher,
+      BeanConfigurator beanConfigurator,
+      PlexusContainer container) {
+    this.settings = settings;
+    this.securityDispatcher = securityDispatcher;
+    this.beanConfigurator = beanConfigurator;
+    this.container = container;
+
+    /* begin https://github.com/chonton/exists-maven-plugin/issues/22 */
+    if (securityDispatcher instanceof DefaultSecDispatcher) {
+      ((DefaultSecDispatcher) securityDispatcher)
+          .setConfigurationFile("~/.m2/settings-security.xml");
+    }
+    /* end https://github.com/chonton/exists-maven-plugin/issues/22 */
+
+    proxyInfo = createProxyInfo(settings.getActiveProxy());
+  }
+
+  /** Get the session's wagon factory. */
+  static WagonFactory get(
+      MavenSession session,
+      Settings settings,
+      SecDispatcher securityDispatcher,
+      BeanConfigurator beanConfigurator,
+      PlexusContainer container) {
+    return SessionState.get(
+        session,
+        WagonFactory.class,
+        () -> new WagonFactory(settings, securityDispatcher, beanConfigurator, container));
+  }
+
+  /**
+   * Connect an idle wagon, or a newly configured wagon, to a repository.
+   *
+   * @param repository The repository, with the server id used for authentication and configuration
+   * @param log Receives configuration diagnostics
+   */
+  Wagon connect(Repository repository, Log log) throws Exception {
+    Wagon wagon = idleWagons(repository).poll();
+    if (wagon == null) {
+      wagon = createWagon(repository, log);
+    }
+    wagon.connect(repository, getAuthenticationInfo(repository.getId()), proxyInfo);
+    return wagon;
+  }
+
+  /** Disconnect a wagon and return it to the idle pool. */
+  void release(Repository repository, Wagon wagon) throws ConnectionException {
+    wagon.disconnect();
+    Queue<Wagon> idle = idleWagons(repository);
+    if (idle.size() < MAX_IDLE) {
+      idle.offer(wagon);
+    }
+  }
+
+  private Queue<Wagon> idleWagons(Repository repository) {
+    return idleWagons.computeIfAbsent(
+        repository.getId() + ' ' + repository.getProtocol(), k -> new ConcurrentLinkedQueue<>());
+  }
+
+  /**
+   * A digest of the settings which affect requests to a server. It changes when the server's
+   * credentials or configuration, or the active proxy, change.
+   */
+  String fingerprint(String serverId) {
+    return fingerprints.computeIfAbsent(serverId, this::computeFingerprint);
+  }
+
+  private String computeFingerprint(String serverId) {
+    List<Object> values = new ArrayList<>();
+    values.add(serverId);
+    Server server = settings.getServer(serverId);
+    if (server != null) {
+      values.addAll(
+          Arrays.asList(
+              server.getUsername(),
+              server.getPassword(),
+              server.getPassphrase(),
+              server.getPrivateKey(),
+              server.getConfiguration()));
+    }
+    Proxy proxy = settings.getActiveProxy();
+    if (proxy != null) {
+      values.addAll(
+          Arrays.asList(
+              proxy.getProtocol(),
+              proxy.getHost(),
+              proxy.getPort(),
+              proxy.getUsername(),
+              proxy.getPassword(),
+              proxy.getNonProxyHosts()));
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (Object value : values) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      return CheckSum.hexEncode(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Wagon createWagon(Repository repository, Log log)
+      throws ComponentLookupException, BeanConfigurationException {
+    Wagon wagon = container.lookup(Wagon.class, repository.getProtocol());
+    configureWagon(wagon, repository.getId(), log);
+    return wagon;
+  }
+
+  /* begin
+  https://github.com/chonton/exists-maven-plugin/issues/16,
+  https://github.com/chonton/exists-maven-plugin/issues/27 */
+  private void configureWagon(Wagon wagon, String serverId, Log log)
+      throws BeanConfigurationException {
+    Server server = settings.getServer(serverId);
+    if (server == null) {
+      log.debug("no server for id " + serverId);
+      return;
+    }
+
+    Object serverConfiguration = server.getConfiguration();
+    if (serverConfiguration == null) {
+      log.debug("no server configuration");
+      return;
+    }
+
+    BeanConfigurationRequest bcr = new DefaultBeanConfigurationRequest();
+    bcr.setBean(wagon);
+    bcr.setConfiguration(serverConfiguration);
+    beanConfigurator.configureBean(bcr);
+  }
+
+  /* end
+  https://github.com/chonton/exists-maven-plugin/issues/16,
+  https://github.com/chonton/exists-maven-plugin/issues/27 */
+
+  private static ProxyInfo createProxyInfo(Proxy proxy) {
+    if (proxy == null) {
+      return null;
+    }
+
+    ProxyInfo proxyInfo = new ProxyInfo();
+    proxyInfo.setHost(proxy.getHost());
+    proxyInfo.setType(proxy.getProtocol());
+    proxyInfo.setPort(proxy.getPort());
+    proxyInfo.setNonProxyHosts(proxy.getNonProxyHosts());
+    proxyInfo.setUserName(proxy.getUsername());
+    proxyInfo.setPassword(proxy.getPassword());
+    return proxyInfo;
+  }
+
+  ProxyInfo getProxyInfo() {
+    return proxyInfo;
+  }
+
+  /**
+   * Get the http headers configured for a server, which wagon-http sends with each request.
+   *
+   * @return Header names and values, alternating
+   */
+  List<String> getHttpHeaders(String serverId) {
+    List<String> headers = new ArrayList<>();
+    Server server = settings.getServer(serverId);
+    if (server != null && server.getConfiguration() instanceof Xpp3Dom configuration) {
+      Xpp3Dom httpHeaders = configuration.getChild("httpHeaders");
+      if (httpHeaders != null) {
+        for (Xpp3Dom property : httpHeaders.getChildren("property")) {
+          Xpp3Dom name = property.getChild("name");
+          Xpp3Dom value = property.getChild("value");
+          if (name != null && value != null) {
+            headers.add(name.getValue());
+            headers.add(value.getValue());
+          }
+        }
+      }
+    }
+    return headers;
+  }
+
+  /** Get the authentication for a server, decrypting its password on first use. */
+  AuthenticationInfo getAuthenticationInfo(String serverId) throws SecDispatcherException {
+    Optional<AuthenticationInfo> authInfo = authentication.get(serverId);
+    if (authInfo == null) {
+      // racing threads may each decrypt; the first result is kept
+      authInfo = Optional.ofNullable(createAuthenticationInfo(settings.getServer(serverId)));
+      Optional<AuthenticationInfo> prior = authentication.putIfAbsent(serverId, authInfo);
+      if (prior != null) {
+        authInfo = prior;
+      }
+    }
+    return authInfo.orElse(null);
+  }
+
+  private AuthenticationInfo createAuthenticationInfo(Server server) throws SecDispatcherException {
+    if (server == null) {
+      return null;
+    }
+
+    AuthenticationInfo authInfo = new AuthenticationInfo();
+    authInfo.setUserName(server.getUsername());
+    authInfo.setPassword(securityDispatcher.decrypt(server.getPassword()));
+    authInfo.setPassphrase(server.getPassphrase());
+    authInfo.setPrivateKey(server.getPrivateKey());
+    return authInfo;
+  }
+}
@@ -0,0 +1,237 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import org.apache.maven.wagon.ConnectionException;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * Requests to a remote server through a pooled wagon, with the server's credentials and proxy,
+ * within the host's adaptive concurrency limit and circuit breaker.
+ */
+class WagonHelper implements AutoCloseable {
+
+  private final RemoteOptions options;
+
+  private final Wagon wagon;
+  private final AdaptiveLimiter limiter;
+  private final CircuitBreaker breaker;
+  private final String repositoryBase;
+  private final Repository wagonRepository;
+  private final WagonFactory factory;
+  private long received;
+
+  /**
+   * Connect to a remote server.
+   *
+   * @param options The connection options of the goal
+   * @param serverId The server id of the settings to apply, or an empty string
+   * @param uri The base URL of the requests
+   */
+  WagonHelper(RemoteOptions options, String serverId, String uri) throws Exception {
+    this.options = options;
+    repositoryBase = uri;
+    wagonRepository = new Repository(serverId, uri);
+    String host = HostGuard.host(wagonRepository);
+    limiter = AdaptiveLimiter.forHost(options.session(), host, options.maxConcurrency());
+    breaker =
+        CircuitBreaker.forHost(
+            options.session(),
+            host,
+            options.circuitBreakerThreshold(),
+            options.circuitBreakerProbeInterval());
+    factory = options.factory();
+    breaker.allowRequest();
+    try {
+      wagon = connectWagon(wagonRepository);
+    } catch (ConnectionException e) {
+      breaker.failConnection();
+      throw e;
+    } catch (Exception e) {
+      breaker.fail(e);
+      throw e;
+    }
+  }
+
+  Wagon connectWagon(Repository repo) throws Exception {
+    ConnectionEvent event = connectionEvent(ConnectionEvent.OPEN);
+    boolean connected = false;
+    try {
+      Wagon wgn = factory.connect(repo, options.log());
+      connected = true;
+      return wgn;
+    } finally {
+      commit(event, connected);
+    }
+  }
+
+  private ConnectionEvent connectionEvent(String action) {
+    ConnectionEvent event = new ConnectionEvent();
+    event.begin();
+    event.action = action;
+    return event;
+  }
+
+  private void commit(ConnectionEvent event, boolean succeeded) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.repository = repositoryBase;
+      event.serverId = wagonRepository.getId();
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
+  boolean resourceExists(String path) throws Exception {
+    RepositoryRequestEvent event = requestEvent("HEAD", path);
+    boolean exists = invoke(event, () -> wagon.resourceExists(path));
+    commit(event, exists ? RepositoryRequestEvent.OK : RepositoryRequestEvent.NOT_FOUND);
+    return exists;
+  }
+
+  <T> T getContent(String resourceName, ContentParser<T> parser) throws Exception {
+    RepositoryRequestEvent event = requestEvent("GET", resourceName);
+    T content = invoke(event, () -> fetch(resourceName, parser));
+    commit(event, RepositoryRequestEvent.OK);
+    return content;
+  }
+
+  /**
+   * Compare a resource with a local file while streaming the resource, aborting the transfer at the
+   * first difference.
+   */
+  boolean contentMatches(String resourceName, Path local) throws Exception {
+    RepositoryRequestEvent event = requestEvent("GET", resourceName);
+    boolean matches = invoke(event, () -> compare(resourceName, local));
+    commit(event, RepositoryRequestEvent.OK);
+    return matches;
+  }
+
+  private boolean compare(String resourceName, Path local) throws Exception {
+    if (!(wagon instanceof StreamingWagon streamingWagon)) {
+      // non-streaming wagons can only transfer into a file
+      Path tmpFilePath = Files.createTempFile("exists", null);
+      try {
+        wagon.get(resourceName, tmpFilePath.toFile());
+        received = Files.size(tmpFilePath);
+        return Files.mismatch(tmpFilePath, local) < 0;
+      } finally {
+        deleteTemporary(tmpFilePath);
+      }
+    }
+    try (ContentComparator comparator = new ContentComparator(local)) {
+      // the length is known from the response headers, before any content is compared
+      TransferListener listener =
+          new AbstractTransferListener() {
+            @Override
+            public void transferStarted(TransferEvent transferEvent) {
+              comparator.setExpectedLength(transferEvent.getResource().getContentLength());
+            }
+          };
+      wagon.addTransferListener(listener);
+      try {
+        streamingWagon.getToStream(resourceName, comparator);
+        return comparator.isComplete();
+      } catch (Exception e) {
+        if (isMismatch(e)) {
+          options.log().debug(resourceName + " " + e.getMessage());
+          return false;
+        }
+        throw e;
+      } finally {
+        received = comparator.getPosition();
+        wagon.removeTransferListener(listener);
+      }
+    }
+  }
+
+  private static boolean isMismatch(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ContentComparator.Mismatch) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private RepositoryRequestEvent requestEvent(String method, String path) {
+    return RepositoryRequestEvent.start(method, path);
+  }
+
+  private void commit(RepositoryRequestEvent event, int status) {
+    event.finish(repositoryBase, status, received);
+  }
+
+  private <T> T invoke(RepositoryRequestEvent event, Callable<T> request) throws Exception {
+    try {
+      T result = limiter.call(request, options.throttleRetries(), options.throttleBackoff());
+      breaker.succeed();
+      return result;
+    } catch (Exception e) {
+      breaker.fail(e);
+      commit(
+          event,
+          e instanceof ResourceDoesNotExistException
+              ? RepositoryRequestEvent.NOT_FOUND
+              : AdaptiveLimiter.statusCode(e));
+      throw e;
+    }
+  }
+
+  private <T> T fetch(String resourceName, ContentParser<T> parser) throws Exception {
+    if (wagon instanceof StreamingWagon streamingWagon) {
+      try (ResponseBuffer buffer = new ResponseBuffer(options.maxResponseSize())) {
+        streamingWagon.getToStream(resourceName, buffer);
+        received = buffer.size();
+        return parser.parse(buffer.getInputStream());
+      }
+    }
+
+    // non-streaming wagons can only transfer into a file; remove it as soon as it is parsed
+    Path tmpFilePath = Files.createTempFile("exists", null);
+    try {
+      wagon.get(resourceName, tmpFilePath.toFile());
+      received = Files.size(tmpFilePath);
+      if (received > options.maxResponseSize()) {
+        throw ResponseBuffer.tooLarge(resourceName, options.maxResponseSize());
+      }
+      try (InputStream is = Files.newInputStream(tmpFilePath)) {
+        return parser.parse(is);
+      }
+    } finally {
+      deleteTemporary(tmpFilePath);
+    }
+  }
+
+  private void deleteTemporary(Path tmpFilePath) {
+    try {
+      Files.deleteIfExists(tmpFilePath);
+    } catch (IOException e) {
+      options.log().debug("Error deleting " + tmpFilePath + " - ignored", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    options.log().debug(limiter.summary());
+    ConnectionEvent event = connectionEvent(ConnectionEvent.CLOSE);
+    boolean disconnected = false;
+    try {
+      factory.release(wagonRepository, wagon);
+      disconnected = true;
+    } catch (ConnectionException e) {
+      options.log().debug("Error disconnecting wagon - ignored", e);
+    } finally {
+      commit(event, disconnected);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.shared.http.HttpMessageUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+  private static IOException failure(int statusCode) {
+    return new IOException(
+        "wrapper",
+        new TransferFailedException(
+            HttpMessageUtils.formatTransferFailedMessage(
+                "http://localhost/repo/a.jar", statusCode, null, null)));
+  }
+
+  @Test
+  void statusCode() {
+    Assertions.assertEquals(429, AdaptiveLimiter.statusCode(failure(429)));
+    ProxyInfo proxy = new ProxyInfo();
+    proxy.setHost("proxy");
+    proxy.setPort(3128);
+    Assertions.assertEquals(
+        503,
+        AdaptiveLimiter.statusCode(
+            new TransferFailedException(
+                HttpMessageUtils.formatTransferFailedMessage(
+                    "http://localhost/repo/a.jar", 503, "Service Unavailable", proxy))));
+    Assertions.assertEquals(
+        503, AdaptiveLimiter.statusCode(new IOException("transfer failed, status code: 503")));
+    Assertions.assertEquals(-1, AdaptiveLimiter.statusCode(new IOException("connect timed out")));
+  }
+
+  @Test
+  void additiveIncrease() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 6);
+    Assertions.assertEquals(4, limiter.getLimit());
+    for (int i = 0; i < 50; ++i) {
+      Assertions.assertTrue(limiter.call(() -> true, 0, 0));
+    }
+    Assertions.assertEquals(6, limiter.getLimit());
+  }
+
+  @Test
+  void slowStart() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 64);
+    for (int i = 0; i < 4; ++i) {
+      Assertions.assertTrue(limiter.call(() -> true, 0, 0));
+    }
+    Assertions.assertEquals(8, limiter.getLimit());
+  }
+
+  @Test
+  void retryThrottled() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 16);
+    AtomicInteger attempts = new AtomicInteger();
+    String result =
+        limiter.call(
+            () -> {
+              if (attempts.incrementAndGet() < 3) {
+                throw failure(503);
+              }
+              return "ok";
+            },
+            3,
+            1);
+    Assertions.assertEquals("ok", result);
+    Assertions.assertEquals(2, limiter.getThrottled());
+    // halved twice from 4, then raised by the successful request
+    Assertions.assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  void otherFailuresPropagate() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 1);
+    Assertions.assertThrows(
+        IOException.class,
+        () ->
+            limiter.call(
+                () -> {
+                  throw failure(500);
+                },
+                3,
+                1));
+    // the failed request released its permit
+    Assertions.assertTrue(limiter.call(() -> true, 0, 0));
+  }
+
+  @Test
+  void errorReleasesPermit() throws Exception {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 1);
+    Assertions.assertThrows(
+        StackOverflowError.class,
+        () ->
+            limiter.call(
+                () -> {
+                  throw new StackOverflowError();
+                },
+                3,
+                1));
+    Assertions.assertTrue(limiter.call(() -> true, 0, 0));
+  }
+
+  @Test
+  void retryAfterReplacesBackoff() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("host", 16);
+    AtomicInteger attempts = new AtomicInteger();
+    // the backoff would pause a minute; the host asks for no delay
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () ->
+            limiter.call(
+                () -> {
+                  if (attempts.incrementAndGet() < 2) {
+                    throw new AdaptiveLimiter.ThrottledException("GET a failed, status: 429", 0);
+                  }
+                  return true;
+                },
+                3,
+                60_000));
+    Assertions.assertEquals(1, limiter.getThrottled());
+  }
+
+  @Test
+  void retryAfterHeader() {
+    long now = 1_445_412_480_000L; // Wed, 21 Oct 2015 07:28:00 GMT
+    Assertions.assertEquals(120_000, HostGuard.retryAfterMillis(" 120 ", now));
+    Assertions.assertEquals(
+        30_000, HostGuard.retryAfterMillis("Wed, 21 Oct 2015 07:28:30 GMT", now));
+    Assertions.assertEquals(0, HostGuard.retryAfterMillis("Wed, 21 Oct 2015 07:27:00 GMT", now));
+    Assertions.assertEquals(-1, HostGuard.retryAfterMillis("soon", now));
+  }
+}
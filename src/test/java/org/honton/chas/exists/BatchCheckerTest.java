@@ -0,0 +1,119 @@
+package org.honton.chas.exists;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchCheckerTest {
+
+  private static final Set<String> PUBLISHED =
+      Set.of(
+          "/repo/org/example/lib/1.0/lib-1.0.jar",
+          "/repo/org/example/app/2.0-SNAPSHOT/maven-metadata.xml");
+
+  @Test
+  void checkManifest() throws IOException, InterruptedException {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          boolean authorized = "token".equals(exchange.getRequestHeaders().getFirst("X-Auth"));
+          int status =
+              !authorized
+                  ? 401
+                  : PUBLISHED.contains(exchange.getRequestURI().getPath()) ? 200 : 404;
+          exchange.sendResponseHeaders(status, -1);
+          exchange.close();
+        });
+    server.start();
+    try {
+      BatchChecker checker =
+          new BatchChecker(
+              "http://localhost:" + server.getAddress().getPort() + "/repo",
+              2,
+              List.of("X-Auth", "token"));
+      String manifest =
+          String.join(
+              "\n",
+              "# release manifest",
+              "org.example:lib:1.0",
+              "org.example:lib:pom:1.0",
+              "",
+              "org.example:app:2.0-SNAPSHOT",
+              "org.example:lib");
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      int errors =
+          checker.check(
+              new BufferedReader(new StringReader(manifest)),
+              new PrintStream(bytes, true, StandardCharsets.UTF_8));
+
+      Assertions.assertEquals(1, errors);
+      List<String> lines =
+          Arrays.stream(bytes.toString(StandardCharsets.UTF_8).split("\n"))
+              .sorted()
+              .collect(Collectors.toList());
+      Assertions.assertEquals(4, lines.size());
+      Assertions.assertTrue(lines.get(0).startsWith("{\"gav\":\"org.example:app:2.0-SNAPSHOT\""));
+      Assertions.assertTrue(lines.get(0).endsWith("\"exists\":true}"));
+      Assertions.assertEquals(
+          "{\"gav\":\"org.example:lib\",\"error\":"
+              + "\"org.example:lib must be in format groupId:artifactId[:packaging]:version\"}",
+          lines.get(1));
+      Assertions.assertEquals(
+          "{\"gav\":\"org.example:lib:1.0\",\"url\":\"http://localhost:"
+              + server.getAddress().getPort()
+              + "/repo/org/example/lib/1.0/lib-1.0.jar\",\"exists\":true}",
+          lines.get(2));
+      Assertions.assertTrue(lines.get(3).endsWith("lib-1.0.pom\",\"exists\":false}"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void retryThrottled() throws IOException {
+    AtomicInteger requests = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          exchange.sendResponseHeaders(requests.incrementAndGet() == 1 ? 429 : 200, -1);
+          exchange.close();
+        });
+    server.start();
+    try {
+      BatchChecker checker =
+          new BatchChecker(
+              "http://localhost:" + server.getAddress().getPort() + "/repo", 2, List.of());
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      int errors =
+          checker.check(
+              new BufferedReader(new StringReader("org.example:lib:1.0")),
+              new PrintStream(bytes, true, StandardCharsets.UTF_8));
+
+      Assertions.assertEquals(0, errors);
+      Assertions.assertEquals(2, requests.get());
+      Assertions.assertTrue(
+          bytes.toString(StandardCharsets.UTF_8).trim().endsWith("\"exists\":true}"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void quote() {
+    Assertions.assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", BatchChecker.quote("a\"b\\c\nd\u0001"));
+  }
+}
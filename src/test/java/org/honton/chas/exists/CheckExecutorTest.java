@@ -0,0 +1,22 @@
+package org.honton.chas.exists;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CheckExecutorTest {
+
+  @Test
+  void errorCompletesCheck() {
+    CompletableFuture<Boolean> check =
+        CheckExecutor.supply(
+            () -> {
+              throw new StackOverflowError("check");
+            });
+    ExecutionException failure =
+        Assertions.assertThrows(ExecutionException.class, () -> check.get(10, TimeUnit.SECONDS));
+    Assertions.assertInstanceOf(StackOverflowError.class, failure.getCause());
+  }
+}
@@ -1,14 +1,24 @@
 package org.honton.chas.exists;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.maven.plugin.MojoFailureException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class CheckSumTest {
   private String localRepositoryPath;
@@ -33,4 +43,72 @@ class CheckSumTest {
     checkSum.writeChecksum(getPath("jar"));
     checkSum.writeChecksum(getPath("pom"));
   }
+
+  @Test
+  void readChecksum() throws IOException {
+    String content = "  0a1b2c3d4e5f60718293a4b5c6d7e8f901234567  exists-maven-plugin.jar\n";
+    Assertions.assertEquals(
+        "0a1b2c3d4e5f60718293a4b5c6d7e8f901234567",
+        CheckSum.readChecksum(
+            new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII))));
+  }
+
+  @Test
+  void getChecksums(@TempDir Path directory) throws IOException, NoSuchAlgorithmException {
+    Path path = Files.writeString(directory.resolve("artifact.jar"), "content");
+    Map<String, String> checksums = CheckSum.getChecksums(path, List.of("SHA-1", "SHA-256"));
+    Assertions.assertEquals(new CheckSum().getChecksum(path), checksums.get("SHA-1"));
+    Assertions.assertEquals(new CheckSum("SHA-256").getChecksum(path), checksums.get("SHA-256"));
+
+    CheckSum.writeChecksum(path, "SHA-256", checksums.get("SHA-256"));
+    Path sidecar = directory.resolve("artifact.jar.sha256");
+    Assertions.assertEquals(sidecar, CheckSum.sidecar(path, "SHA-256"));
+    Assertions.assertEquals(checksums.get("SHA-256"), Files.readString(sidecar).trim());
+  }
+
+  @Test
+  void recordsFileHashEvent(@TempDir Path directory) throws IOException, NoSuchAlgorithmException {
+    Path path = Files.writeString(directory.resolve("artifact.jar"), "content");
+    Path dump = directory.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(FileHashEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+      new CheckSum().getChecksum(path);
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    Assertions.assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    Assertions.assertEquals(path.toString(), event.getString("path"));
+    Assertions.assertEquals("SHA-1", event.getString("algorithms"));
+    Assertions.assertEquals(7, event.getLong("size"));
+  }
+
+  @Test
+  void cachedDigestFollowsFileChanges(@TempDir Path directory)
+      throws IOException, NoSuchAlgorithmException {
+    Path path = Files.writeString(directory.resolve("artifact.jar"), "content");
+    FileTime settled = FileTime.fromMillis(System.currentTimeMillis() - 10_000);
+    Files.setLastModifiedTime(path, settled);
+    CheckSum checkSum = new CheckSum();
+    String first = checkSum.getChecksum(path);
+    Assertions.assertNotNull(DaemonCache.DIGESTS.get(DaemonCache.FileStamp.of(path, "SHA-1")));
+    Assertions.assertEquals(first, checkSum.getChecksum(path));
+
+    Files.writeString(path, "changed content");
+    Assertions.assertNotEquals(first, checkSum.getChecksum(path));
+    Assertions.assertEquals(
+        CheckSum.getChecksums(path, List.of("SHA-1")).get("SHA-1"), checkSum.getChecksum(path));
+  }
+
+  @Test
+  void recentlyModifiedDigestIsNotCached(@TempDir Path directory)
+      throws IOException, NoSuchAlgorithmException {
+    Path path = Files.writeString(directory.resolve("artifact.jar"), "recent");
+    new CheckSum().getChecksum(path);
+    // a write within the timestamp granularity could leave the stamp unchanged
+    Assertions.assertNull(DaemonCache.DIGESTS.get(DaemonCache.FileStamp.of(path, "SHA-1")));
+  }
 }
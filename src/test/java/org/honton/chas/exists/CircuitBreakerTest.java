@@ -0,0 +1,60 @@
+package org.honton.chas.exists;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.ConnectException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final IOException CONNECT_FAILURE =
+      new IOException("transfer failed", new ConnectException("Connection refused"));
+
+  @Test
+  void opensAfterConsecutiveConnectionFailures() throws IOException {
+    CircuitBreaker breaker = new CircuitBreaker("host", 2, 60_000);
+    breaker.allowRequest();
+    breaker.fail(CONNECT_FAILURE);
+    breaker.allowRequest();
+    breaker.fail(CONNECT_FAILURE);
+    Assertions.assertTrue(breaker.isOpen());
+    Assertions.assertThrows(CircuitBreaker.OpenException.class, breaker::allowRequest);
+  }
+
+  @Test
+  void responsesResetFailures() throws IOException {
+    CircuitBreaker breaker = new CircuitBreaker("host", 2, 60_000);
+    breaker.fail(CONNECT_FAILURE);
+    breaker.fail(new FileNotFoundException("not found"));
+    breaker.fail(CONNECT_FAILURE);
+    Assertions.assertFalse(breaker.isOpen());
+    breaker.allowRequest();
+  }
+
+  @Test
+  void singleProbeAfterInterval() throws IOException {
+    CircuitBreaker breaker = new CircuitBreaker("host", 1, 0);
+    breaker.fail(CONNECT_FAILURE);
+    Assertions.assertTrue(breaker.isOpen());
+
+    // first caller probes, others are refused while the probe is in flight
+    breaker.allowRequest();
+    Assertions.assertThrows(CircuitBreaker.OpenException.class, breaker::allowRequest);
+
+    breaker.fail(CONNECT_FAILURE);
+    Assertions.assertTrue(breaker.isOpen());
+    breaker.allowRequest();
+    breaker.succeed();
+    Assertions.assertFalse(breaker.isOpen());
+  }
+
+  @Test
+  void disabled() throws IOException {
+    CircuitBreaker breaker = new CircuitBreaker("host", 0, 60_000);
+    for (int i = 0; i < 10; ++i) {
+      breaker.fail(CONNECT_FAILURE);
+    }
+    Assertions.assertFalse(breaker.isOpen());
+  }
+}
@@ -0,0 +1,66 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentComparatorTest {
+
+  private static Path write(Path tmp, byte[] content) throws IOException {
+    return Files.write(tmp.resolve("artifact.jar"), content);
+  }
+
+  private static byte[] content(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      content[i] = (byte) (i * 31);
+    }
+    return content;
+  }
+
+  @Test
+  void sameContent(@TempDir Path tmp) throws IOException {
+    byte[] content = content(10000);
+    try (ContentComparator comparator = new ContentComparator(write(tmp, content))) {
+      comparator.setExpectedLength(content.length);
+      comparator.write(content, 0, 4096);
+      comparator.write(content[4096]);
+      comparator.write(content, 4097, content.length - 4097);
+      Assertions.assertTrue(comparator.isComplete());
+    }
+  }
+
+  @Test
+  void abortsAtFirstDifference(@TempDir Path tmp) throws IOException {
+    byte[] content = content(10000);
+    try (ContentComparator comparator = new ContentComparator(write(tmp, content))) {
+      byte[] changed = content.clone();
+      changed[5000] ^= 1;
+      comparator.write(changed, 0, 4096);
+      ContentComparator.Mismatch mismatch =
+          Assertions.assertThrows(
+              ContentComparator.Mismatch.class, () -> comparator.write(changed, 4096, 4096));
+      Assertions.assertEquals("content differs at byte 5000", mismatch.getMessage());
+    }
+  }
+
+  @Test
+  void lengths(@TempDir Path tmp) throws IOException {
+    byte[] content = content(100);
+    try (ContentComparator comparator = new ContentComparator(write(tmp, content))) {
+      comparator.setExpectedLength(101);
+      Assertions.assertThrows(
+          ContentComparator.Mismatch.class, () -> comparator.write(content, 0, 1));
+      Assertions.assertEquals(0, comparator.getPosition());
+    }
+    try (ContentComparator comparator = new ContentComparator(tmp.resolve("artifact.jar"))) {
+      comparator.write(content, 0, 50);
+      Assertions.assertFalse(comparator.isComplete());
+      Assertions.assertThrows(
+          ContentComparator.Mismatch.class, () -> comparator.write(content(101), 0, 101));
+    }
+  }
+}
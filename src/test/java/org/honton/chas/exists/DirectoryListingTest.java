@@ -0,0 +1,80 @@
+package org.honton.chas.exists;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DirectoryListingTest {
+
+  private static Set<String> parse(String listing) throws IOException {
+    return DirectoryListing.parse(
+        new ByteArrayInputStream(listing.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void apacheIndex() throws IOException {
+    Set<String> names =
+        parse(
+            """
+            <html><head><title>Index of /maven2/org/example/lib/1.0</title></head><body>
+            <h1>Index of /maven2/org/example/lib/1.0</h1>
+            <pre><a href="../">../</a>
+            <a href="lib-1.0.jar" title="lib-1.0.jar">lib-1.0.jar</a>  2023-01-01 00:00  1024
+            <a href="lib-1.0.jar.sha1" title="lib-1.0.jar.sha1">lib-1.0.jar.sha1</a>
+            <a href="lib-1.0-tests.jar">lib-1.0-tests.jar</a>
+            <a href="lib-1.0.pom">lib-1.0.pom</a>
+            </pre></body></html>
+            """);
+    Assertions.assertEquals(
+        Set.of("lib-1.0.jar", "lib-1.0.jar.sha1", "lib-1.0-tests.jar", "lib-1.0.pom"), names);
+  }
+
+  @Test
+  void nexusIndex() throws IOException {
+    Set<String> names =
+        parse(
+            """
+            <table cellspacing="10">
+              <tr><td><a href="https://nexus.example.com/repository/releases/org/example/lib/">Parent Directory</a></td></tr>
+              <tr><td><a HREF='https://nexus.example.com/repository/releases/org/example/lib/1.0/lib-1.0.jar'>lib-1.0.jar</a></td></tr>
+              <tr><td><a href="https://nexus.example.com/repository/releases/org/example/lib/1.0/lib%2Bextra-1.0.jar?download">lib+extra-1.0.jar</a></td></tr>
+            </table>
+            """);
+    Assertions.assertTrue(names.contains("lib-1.0.jar"));
+    Assertions.assertTrue(names.contains("lib+extra-1.0.jar"));
+    Assertions.assertFalse(names.contains("lib-1.0.pom"));
+  }
+
+  @Test
+  void plusIsNotSpace() throws IOException {
+    Assertions.assertEquals(
+        Set.of("lib+extra-1.0.jar", "lib extra-1.0.jar"),
+        parse("<a href=\"lib+extra-1.0.jar\">a</a> <a href=\"lib%20extra-1.0.jar\">b</a>"));
+  }
+
+  @Test
+  void isListingOf() throws IOException {
+    String directory = "org/example/lib/1.0/";
+    Assertions.assertTrue(DirectoryListing.isListingOf(Set.of("../", "lib-1.0.pom"), directory));
+    Assertions.assertTrue(
+        DirectoryListing.isListingOf(
+            Set.of("maven-metadata.xml"), "org/example/lib/2.0-SNAPSHOT/"));
+    Assertions.assertFalse(DirectoryListing.isListingOf(Set.of(), directory));
+    // a login page served in place of the listing
+    Assertions.assertFalse(
+        DirectoryListing.isListingOf(
+            parse(
+                """
+                <html><body><form action="/login"><a href="/forgot-password">Forgot?</a>
+                <a href="/static/app.css">style</a></form></body></html>
+                """),
+            directory));
+    // browse API JSON is not a listing of the directory URL
+    Assertions.assertFalse(
+        DirectoryListing.isListingOf(
+            parse("{\"children\":[{\"uri\":\"/lib-1.0.jar\",\"folder\":false}]}"), directory));
+  }
+}
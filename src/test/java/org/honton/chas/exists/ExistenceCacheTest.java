@@ -0,0 +1,69 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExistenceCacheTest {
+  private static final String RELEASE = "http://repo/org/example/lib/1.0/lib-1.0.jar";
+  private static final String MISSING = "http://repo/org/example/lib/1.1/lib-1.1.jar";
+  private static final String UNKNOWN = "http://repo/org/example/lib/1.2/lib-1.2.jar";
+
+  private ExistenceCacheServer server;
+  private ExistenceCacheClient client;
+
+  @BeforeEach
+  void start() throws IOException {
+    server = new ExistenceCacheServer(0, 2);
+    client = new ExistenceCacheClient("http://localhost:" + server.getPort());
+  }
+
+  @AfterEach
+  void stop() {
+    server.close();
+  }
+
+  @Test
+  void batchLookup() throws IOException, InterruptedException {
+    client.publish(Map.of(RELEASE, true), ExistenceCacheServer.FOREVER);
+    client.publish(Map.of(MISSING, false), 60_000);
+
+    Map<String, Boolean> known = client.lookup(List.of(RELEASE, MISSING, UNKNOWN));
+    Assertions.assertEquals(Map.of(RELEASE, true, MISSING, false), known);
+  }
+
+  @Test
+  void entriesExpire() throws IOException, InterruptedException {
+    client.publish(Map.of(MISSING, false), 1);
+    Thread.sleep(10);
+    Assertions.assertTrue(client.lookup(List.of(MISSING)).isEmpty());
+    Assertions.assertEquals(0, server.size());
+  }
+
+  @Test
+  void releasePositivesAreImmutable() throws IOException, InterruptedException {
+    client.publish(Map.of(RELEASE, true), ExistenceCacheServer.FOREVER);
+    client.publish(Map.of(RELEASE, false), 60_000);
+    Assertions.assertEquals(Map.of(RELEASE, true), client.lookup(List.of(RELEASE)));
+  }
+
+  @Test
+  void boundedEntries() throws IOException, InterruptedException {
+    client.publish(Map.of(RELEASE, true), ExistenceCacheServer.FOREVER);
+    client.publish(Map.of(MISSING, false), 60_000);
+    client.publish(Map.of(UNKNOWN, true), ExistenceCacheServer.FOREVER);
+    Assertions.assertEquals(2, server.size());
+    Assertions.assertEquals(
+        Map.of(MISSING, false, UNKNOWN, true), client.lookup(List.of(RELEASE, MISSING, UNKNOWN)));
+  }
+
+  @Test
+  void unavailableService() {
+    server.close();
+    Assertions.assertThrows(IOException.class, () -> client.lookup(List.of(RELEASE)));
+  }
+}
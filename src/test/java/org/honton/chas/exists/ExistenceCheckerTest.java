@@ -0,0 +1,72 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExistenceCheckerTest {
+
+  private static void publish(Path repository, String path, String content) throws IOException {
+    Path file = repository.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  @Test
+  void artifactsExist(@TempDir Path repository) throws Exception {
+    publish(repository, "org/example/lib/1.0/lib-1.0.jar", "jar");
+    publish(repository, "org/example/lib/2.0-SNAPSHOT/maven-metadata-local.xml", "<metadata/>");
+
+    Map<String, CompletableFuture<Boolean>> checks =
+        ExistenceChecker.local(repository)
+            .artifactsExist(
+                List.of(
+                    "org.example:lib:1.0",
+                    "org.example:lib:1.1",
+                    "org.example:lib:2.0-SNAPSHOT",
+                    "org.example:lib:1.0",
+                    "org.example:lib"));
+
+    Assertions.assertEquals(4, checks.size());
+    Assertions.assertTrue(checks.get("org.example:lib:1.0").get());
+    Assertions.assertFalse(checks.get("org.example:lib:1.1").get());
+    Assertions.assertTrue(checks.get("org.example:lib:2.0-SNAPSHOT").get());
+    ExecutionException malformed =
+        Assertions.assertThrows(ExecutionException.class, checks.get("org.example:lib")::get);
+    Assertions.assertInstanceOf(IllegalArgumentException.class, malformed.getCause());
+  }
+
+  @Test
+  void checksum(@TempDir Path repository) throws Exception {
+    publish(repository, "org/example/lib/1.0/lib-1.0.jar", "jar");
+    ExistenceChecker checker = ExistenceChecker.local(repository);
+
+    Assertions.assertEquals(
+        new CheckSum().getChecksum(repository.resolve("org/example/lib/1.0/lib-1.0.jar")),
+        checker.checksum("org/example/lib/1.0/lib-1.0.jar").get());
+    Assertions.assertNull(checker.checksum("org/example/lib/1.1/lib-1.1.jar").get());
+  }
+
+  @Test
+  void cachedRemembersReleases(@TempDir Path repository) throws Exception {
+    String release = "org/example/lib/1.0/lib-1.0.jar";
+    String snapshot = "org/example/lib/2.0-SNAPSHOT/lib-2.0-SNAPSHOT.jar";
+    publish(repository, release, "jar");
+    publish(repository, snapshot, "jar");
+    ExistenceChecker checker = ExistenceChecker.cached(ExistenceChecker.local(repository));
+    Assertions.assertTrue(checker.exists(release).get());
+    Assertions.assertTrue(checker.exists(snapshot).get());
+
+    Files.delete(repository.resolve(release));
+    Files.delete(repository.resolve(snapshot));
+    Assertions.assertTrue(checker.exists(release).get());
+    Assertions.assertFalse(checker.exists(snapshot).get());
+  }
+}
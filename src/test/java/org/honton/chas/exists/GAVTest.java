@@ -36,6 +36,36 @@ class GAVTest {
         "groupId/artifactId/version/artifactId-version.wrapped", gav.artifactLocation());
   }
 
+  @Test
+  void existencePath() {
+    Assertions.assertEquals(
+        "org/example/lib/1.0/lib-1.0.pom",
+        new GAV("org.example:lib:pom:1.0", null, null, null).existencePath("maven-metadata.xml"));
+    Assertions.assertEquals(
+        "org/example/lib/2.0-SNAPSHOT/maven-metadata.xml",
+        new GAV("org.example:lib:2.0-SNAPSHOT", null, null, null)
+            .existencePath("maven-metadata.xml"));
+  }
+
+  @Test
+  void typeImpliesClassifier() {
+    Assertions.assertEquals(
+        "org/example/lib/1.0/lib-1.0-tests.jar",
+        new GAV("org.example:lib:test-jar:1.0", null, null, null).artifactLocation());
+    Assertions.assertEquals(
+        "org/example/lib/1.0/lib-1.0-client.jar",
+        new GAV("org.example:lib:ejb-client:1.0", "jar", null, null).artifactLocation());
+  }
+
+  @Test
+  void malformed() {
+    IllegalArgumentException e =
+        Assertions.assertThrows(
+            IllegalArgumentException.class, () -> new GAV("org.example", null, null, null));
+    Assertions.assertEquals(
+        "org.example must be in format groupId:artifactId[:packaging]:version", e.getMessage());
+  }
+
   @Test
   void nulls() throws MojoFailureException {
     GAV gav = new GAV("org.honton.chas:exists-maven-plugin:maven-plugin:0.14.0", null, null, null);
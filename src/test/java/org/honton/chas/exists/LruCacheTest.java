@@ -0,0 +1,21 @@
+package org.honton.chas.exists;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    LruCache<String, Integer> cache = new LruCache<>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    Assertions.assertEquals(1, cache.get("a"));
+
+    cache.put("c", 3);
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(1, cache.get("a"));
+    Assertions.assertNull(cache.get("b"));
+    Assertions.assertEquals(3, cache.get("c"));
+  }
+}
@@ -0,0 +1,52 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MerkleTreeTest {
+
+  private static void writeTree(Path root) throws IOException {
+    Files.createDirectories(root.resolve("org/example"));
+    Files.writeString(root.resolve("org/example/A.class"), "class A");
+    Files.writeString(root.resolve("org/example/B.class"), "class B");
+    Files.writeString(root.resolve("application.properties"), "key=value");
+  }
+
+  @Test
+  void sameTreeSameDigest(@TempDir Path tmp) throws IOException, NoSuchAlgorithmException {
+    writeTree(tmp.resolve("one"));
+    writeTree(tmp.resolve("two"));
+    MerkleTree tree = new MerkleTree("SHA-256");
+    String digest = tree.digest(List.of(tmp.resolve("one")));
+    Assertions.assertEquals(64, digest.length());
+    Assertions.assertEquals(digest, tree.digest(List.of(tmp.resolve("two"))));
+  }
+
+  @Test
+  void changesAlterDigest(@TempDir Path tmp) throws IOException, NoSuchAlgorithmException {
+    Path root = tmp.resolve("classes");
+    writeTree(root);
+    MerkleTree tree = new MerkleTree("SHA-256");
+    String original = tree.digest(List.of(root));
+
+    Files.writeString(root.resolve("org/example/B.class"), "class B extends A");
+    String changed = tree.digest(List.of(root));
+    Assertions.assertNotEquals(original, changed);
+
+    Files.move(root.resolve("org/example/B.class"), root.resolve("org/example/C.class"));
+    String renamed = tree.digest(List.of(root));
+    Assertions.assertNotEquals(changed, renamed);
+
+    // a missing directory is an empty directory
+    Files.createDirectories(tmp.resolve("empty"));
+    Assertions.assertEquals(
+        tree.digest(List.of(root, tmp.resolve("empty"))),
+        tree.digest(List.of(root, tmp.resolve("missing"))));
+  }
+}
@@ -0,0 +1,58 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RepositoryIndexTest {
+
+  @TempDir Path repository;
+
+  private Path artifact(String path, String content) throws IOException {
+    Path file = repository.resolve(path);
+    Files.createDirectories(file.getParent());
+    return Files.writeString(file, content, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void indexArtifacts() throws IOException, NoSuchAlgorithmException {
+    Path jar = artifact("org/example/lib/1.0/lib-1.0.jar", "jar content");
+    artifact("org/example/lib/1.0/lib-1.0.pom", "pom content");
+    artifact("org/example/lib/1.0/lib-1.0.jar.sha1", "ignored");
+    artifact("org/example/lib/1.0/_remote.repositories", "ignored");
+    artifact("org/example/lib/maven-metadata-local.xml", "ignored");
+    artifact("org/example/app/2.0/app-2.0-tests.jar", "test content");
+
+    Path indexFile = repository.resolve("target/exists.idx");
+    Assertions.assertEquals(
+        3, RepositoryIndex.write(repository, "https://repo.example.com/releases/", indexFile));
+
+    RepositoryIndex index = RepositoryIndex.open(indexFile);
+    Assertions.assertEquals(3, index.size());
+    Assertions.assertTrue(index.isOf("https://repo.example.com/releases"));
+    Assertions.assertFalse(index.isOf("https://mirror.example.com/releases"));
+    Assertions.assertTrue(index.contains("org/example/lib/1.0/lib-1.0.pom"));
+    Assertions.assertTrue(index.contains("org/example/app/2.0/app-2.0-tests.jar"));
+    Assertions.assertFalse(index.contains("org/example/lib/1.0/lib-1.0.jar.sha1"));
+    Assertions.assertFalse(index.contains("org/example/lib/1.0/lib-1.0"));
+    Assertions.assertFalse(index.contains("org/example/zzz/1.0/zzz-1.0.jar"));
+    Assertions.assertEquals(
+        new CheckSum().getChecksum(jar), index.checksum("org/example/lib/1.0/lib-1.0.jar"));
+    Assertions.assertNull(index.checksum("org/example/lib/2.0/lib-2.0.jar"));
+
+    // rewriting the index does not index the earlier index
+    Assertions.assertEquals(3, RepositoryIndex.write(repository, repository.toString(), indexFile));
+    Assertions.assertFalse(RepositoryIndex.open(indexFile).contains("target/exists.idx"));
+  }
+
+  @Test
+  void rejectsOtherFiles() throws IOException {
+    Path other = artifact("other.idx", "not an index");
+    Assertions.assertThrows(IOException.class, () -> RepositoryIndex.open(other));
+  }
+}
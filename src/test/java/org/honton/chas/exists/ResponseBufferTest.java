@@ -0,0 +1,47 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ResponseBufferTest {
+
+  private static byte[] content(int size) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; ++i) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  @Test
+  void spansChunks() throws IOException {
+    byte[] expected = content(BufferPool.CHUNK_SIZE * 2 + 17);
+    try (ResponseBuffer buffer = new ResponseBuffer(expected.length)) {
+      buffer.write(expected, 0, 5);
+      buffer.write(expected[5]);
+      buffer.write(expected, 6, expected.length - 6);
+      Assertions.assertEquals(expected.length, buffer.size());
+      try (InputStream is = buffer.getInputStream()) {
+        Assertions.assertArrayEquals(expected, is.readAllBytes());
+      }
+    }
+  }
+
+  @Test
+  void refusesOversize() throws IOException {
+    byte[] content = content(100);
+    try (ResponseBuffer buffer = new ResponseBuffer(99)) {
+      Assertions.assertThrows(IOException.class, () -> buffer.write(content));
+    }
+  }
+
+  @Test
+  void emptyResponse() throws IOException {
+    try (ResponseBuffer buffer = new ResponseBuffer(10)) {
+      Assertions.assertEquals(-1, buffer.getInputStream().read());
+      Assertions.assertArrayEquals(new byte[0], buffer.getInputStream().readAllBytes());
+    }
+  }
+}
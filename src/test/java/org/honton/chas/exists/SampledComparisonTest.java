@@ -0,0 +1,187 @@
+package org.honton.chas.exists;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SampledComparisonTest {
+
+  private static byte[] content(int size) {
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    return content;
+  }
+
+  @Test
+  void regions() {
+    SampledComparison comparison = new SampledComparison(4, 100);
+    Assertions.assertEquals(List.of(new SampledComparison.Region(0, 400)), comparison.regions(400));
+    Assertions.assertEquals(
+        List.of(
+            new SampledComparison.Region(0, 100),
+            new SampledComparison.Region(300, 100),
+            new SampledComparison.Region(600, 100),
+            new SampledComparison.Region(900, 100)),
+        comparison.regions(1000));
+
+    // the configuration is clamped, so a whole file region never exceeds the sampled bytes
+    SampledComparison large = new SampledComparison(8, Integer.MAX_VALUE);
+    long whole = SampledComparison.MAX_SAMPLED_BYTES;
+    Assertions.assertEquals(
+        List.of(new SampledComparison.Region(0, SampledComparison.MAX_SAMPLED_BYTES)),
+        large.regions(whole));
+    Assertions.assertEquals(8, large.regions(whole + 1).size());
+    Assertions.assertEquals(
+        SampledComparison.MAX_COUNT, new SampledComparison(5000, 1).regions(1L << 40).size());
+  }
+
+  @Test
+  void files(@TempDir Path tmp) throws Exception {
+    byte[] content = content(10_000);
+    Path build = Files.write(tmp.resolve("build.jar"), content);
+    Path same = Files.write(tmp.resolve("same.jar"), content);
+    SampledComparison comparison = new SampledComparison(4, 100);
+    Assertions.assertTrue(comparison.matches(build, SampledComparison.of(same)));
+
+    byte[] tail = content.clone();
+    tail[9_999] ^= 1;
+    Path changedTail = Files.write(tmp.resolve("tail.jar"), tail);
+    Assertions.assertFalse(comparison.matches(build, SampledComparison.of(changedTail)));
+
+    Path longer = Files.write(tmp.resolve("longer.jar"), content(10_001));
+    Assertions.assertFalse(comparison.matches(build, SampledComparison.of(longer)));
+
+    // a change between the sampled regions goes unnoticed
+    byte[] middle = content.clone();
+    middle[2_000] ^= 1;
+    Path changedMiddle = Files.write(tmp.resolve("middle.jar"), middle);
+    Assertions.assertTrue(comparison.matches(build, SampledComparison.of(changedMiddle)));
+  }
+
+  @Test
+  void ranges(@TempDir Path tmp) throws Exception {
+    byte[] content = content(10_000);
+    Path build = Files.write(tmp.resolve("build.jar"), content);
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/ranges/", exchange -> sendRange(exchange, content));
+    server.createContext("/whole/", exchange -> send(exchange, content));
+    server.start();
+    try {
+      String base = "http://localhost:" + server.getAddress().getPort();
+      HostGuard guard =
+          new HostGuard(new AdaptiveLimiter(base, 4), new CircuitBreaker(base, 3, 1000), 0, 0);
+      SampledComparison comparison = new SampledComparison(4, 100);
+      Assertions.assertTrue(
+          comparison.matches(
+              build, new RangeSource(base + "/ranges/a.jar", null, List.of(), null, guard)));
+      Assertions.assertNull(
+          comparison.matches(
+              build, new RangeSource(base + "/whole/a.jar", null, List.of(), null, guard)));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void configuredHeaders(@TempDir Path tmp) throws Exception {
+    byte[] content = content(10_000);
+    Path build = Files.write(tmp.resolve("build.jar"), content);
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          if (!"secret".equals(exchange.getRequestHeaders().getFirst("Job-Token"))) {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+          } else {
+            sendRange(exchange, content);
+          }
+        });
+    server.start();
+    try {
+      String url = "http://localhost:" + server.getAddress().getPort() + "/a.jar";
+      HostGuard guard =
+          new HostGuard(new AdaptiveLimiter(url, 4), new CircuitBreaker(url, 3, 1000), 0, 0);
+      SampledComparison comparison = new SampledComparison(4, 100);
+      Assertions.assertNull(
+          comparison.matches(build, new RangeSource(url, null, List.of(), null, guard)));
+      Assertions.assertTrue(
+          comparison.matches(
+              build, new RangeSource(url, null, List.of("Job-Token", "secret"), null, guard)));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void proxyCredentials(@TempDir Path tmp) throws Exception {
+    byte[] content = content(10_000);
+    Path build = Files.write(tmp.resolve("build.jar"), content);
+    String expected =
+        "Basic "
+            + Base64.getEncoder().encodeToString("user:secret".getBytes(StandardCharsets.UTF_8));
+    // a plain http proxy receives the absolute URL of each request
+    HttpServer proxy = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    proxy.createContext(
+        "/",
+        exchange -> {
+          if (!expected.equals(exchange.getRequestHeaders().getFirst("Proxy-Authorization"))) {
+            exchange.getResponseHeaders().set("Proxy-Authenticate", "Basic realm=\"proxy\"");
+            exchange.sendResponseHeaders(407, -1);
+            exchange.close();
+          } else {
+            sendRange(exchange, content);
+          }
+        });
+    proxy.start();
+    try {
+      ProxyInfo proxyInfo = new ProxyInfo();
+      proxyInfo.setType(ProxyInfo.PROXY_HTTP);
+      proxyInfo.setHost("localhost");
+      proxyInfo.setPort(proxy.getAddress().getPort());
+      proxyInfo.setUserName("user");
+      proxyInfo.setPassword("secret");
+      String url = "http://repository.invalid/ranges/a.jar";
+      HostGuard guard =
+          new HostGuard(new AdaptiveLimiter(url, 4), new CircuitBreaker(url, 3, 1000), 0, 0);
+      Assertions.assertTrue(
+          new SampledComparison(4, 100)
+              .matches(build, new RangeSource(url, null, List.of(), proxyInfo, guard)));
+    } finally {
+      proxy.stop(0);
+    }
+  }
+
+  private static void sendRange(HttpExchange exchange, byte[] content) throws IOException {
+    String range = exchange.getRequestHeaders().getFirst("Range").substring(6);
+    int dash = range.indexOf('-');
+    int first = Integer.parseInt(range.substring(0, dash));
+    int last = Integer.parseInt(range.substring(dash + 1));
+    exchange
+        .getResponseHeaders()
+        .set("Content-Range", "bytes " + first + '-' + last + '/' + content.length);
+    exchange.sendResponseHeaders(206, last - first + 1);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(content, first, last - first + 1);
+    }
+  }
+
+  private static void send(HttpExchange exchange, byte[] content) throws IOException {
+    exchange.sendResponseHeaders(200, content.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(content);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.honton.chas.exists;
+
+import java.util.Map;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SharedResultsTest {
+
+  private static final String RELEASE = "fingerprint http://repo/org/example/lib/1.0/lib-1.0.jar";
+  private static final String SNAPSHOT =
+      "fingerprint http://repo/org/example/lib/1.1-SNAPSHOT/maven-metadata.xml";
+
+  @Test
+  void releasesReusedOnlyWhenEnabled() {
+    SharedResults ignoring = new SharedResults(new SystemStreamLog(), false, null, 0);
+    SharedResults reusing = new SharedResults(new SystemStreamLog(), true, null, 0);
+    ignoring.publish(Map.of(RELEASE, true));
+    Assertions.assertEquals(Map.of(), reusing.lookup(Map.of(RELEASE, "lib-1.0.jar")));
+
+    reusing.publish(Map.of(RELEASE, true, SNAPSHOT, true));
+    Assertions.assertEquals(
+        Map.of(RELEASE, true),
+        reusing.lookup(Map.of(RELEASE, "lib-1.0.jar", SNAPSHOT, "maven-metadata.xml")));
+  }
+}
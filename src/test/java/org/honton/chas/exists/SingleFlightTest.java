@@ -0,0 +1,121 @@
+package org.honton.chas.exists;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static Thread start(CompletableFuture<Object> result, Callable<Object> request) {
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                result.complete(request.call());
+              } catch (Throwable t) {
+                result.completeExceptionally(t);
+              }
+            });
+    thread.start();
+    return thread;
+  }
+
+  @Test
+  void coalesceConcurrentRequests() throws Exception {
+    SingleFlight singleFlight = new SingleFlight();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger requests = new AtomicInteger();
+
+    CompletableFuture<Object> leader = new CompletableFuture<>();
+    start(
+        leader,
+        () ->
+            singleFlight.execute(
+                "GET url",
+                () -> {
+                  requests.incrementAndGet();
+                  release.await();
+                  return "metadata";
+                }));
+    while (requests.get() == 0) {
+      Thread.yield();
+    }
+
+    CompletableFuture<Object> follower = new CompletableFuture<>();
+    Thread thread =
+        start(
+            follower,
+            () ->
+                singleFlight.execute(
+                    "GET url",
+                    () -> {
+                      requests.incrementAndGet();
+                      return "second";
+                    }));
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+
+    // an unrelated key is not blocked by the request in flight
+    Assertions.assertEquals("other", singleFlight.execute("GET other", () -> "other"));
+
+    release.countDown();
+    Assertions.assertEquals("metadata", leader.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals("metadata", follower.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, requests.get());
+  }
+
+  @Test
+  void failureIsNotRemembered() throws Exception {
+    SingleFlight singleFlight = new SingleFlight();
+    Assertions.assertThrows(
+        FileNotFoundException.class,
+        () ->
+            singleFlight.execute(
+                "HEAD url",
+                () -> {
+                  throw new FileNotFoundException("url");
+                }));
+    Assertions.assertTrue(singleFlight.execute("HEAD url", () -> true));
+  }
+
+  @Test
+  void errorReleasesFollowers() throws Exception {
+    SingleFlight singleFlight = new SingleFlight();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger requests = new AtomicInteger();
+
+    CompletableFuture<Object> leader = new CompletableFuture<>();
+    start(
+        leader,
+        () ->
+            singleFlight.execute(
+                "GET url",
+                () -> {
+                  requests.incrementAndGet();
+                  release.await();
+                  throw new OutOfMemoryError("response");
+                }));
+    while (requests.get() == 0) {
+      Thread.yield();
+    }
+
+    CompletableFuture<Object> follower = new CompletableFuture<>();
+    Thread thread = start(follower, () -> singleFlight.execute("GET url", () -> "second"));
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+
+    release.countDown();
+    ExecutionException failure =
+        Assertions.assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+    Assertions.assertInstanceOf(OutOfMemoryError.class, failure.getCause());
+    Assertions.assertEquals("metadata", singleFlight.execute("GET url", () -> "metadata"));
+  }
+}
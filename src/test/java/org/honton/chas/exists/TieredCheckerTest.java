@@ -0,0 +1,66 @@
+package org.honton.chas.exists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TieredCheckerTest {
+  private static final String JAR = "org/example/lib/1.0/lib-1.0.jar";
+
+  private static void resolve(Path local, String path, String repositoryId) throws IOException {
+    Path file = local.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "jar");
+    Files.writeString(
+        file.resolveSibling(TieredChecker.TRACKING_FILE),
+        "#NOTE: This is a Maven Resolver internal implementation file\n"
+            + file.getFileName()
+            + ">"
+            + repositoryId
+            + "=\n");
+  }
+
+  @Test
+  void trackedFromSameRepository(@TempDir Path tmp) throws Exception {
+    Path local = tmp.resolve("local");
+    resolve(local, JAR, "releases");
+    // the remote repository is empty, so any answer of true came from the local repository
+    TieredChecker checker =
+        new TieredChecker(local, "releases", ExistenceChecker.local(tmp.resolve("remote")));
+
+    Assertions.assertTrue(checker.isTracked(JAR));
+    Assertions.assertTrue(checker.exists(JAR).get());
+    Assertions.assertEquals(
+        new CheckSum().getChecksum(local.resolve(JAR)), checker.checksum(JAR).get());
+
+    Files.writeString(local.resolve(JAR + ".sha1"), "0123456789abcdef0123456789abcdef01234567\n");
+    Assertions.assertEquals(
+        "0123456789abcdef0123456789abcdef01234567", checker.checksum(JAR).get());
+  }
+
+  @Test
+  void otherRepositoryAsksRemote(@TempDir Path tmp) throws Exception {
+    Path local = tmp.resolve("local");
+    resolve(local, JAR, "central");
+    TieredChecker checker =
+        new TieredChecker(local, "releases", ExistenceChecker.local(tmp.resolve("remote")));
+
+    Assertions.assertFalse(checker.isTracked(JAR));
+    Assertions.assertFalse(checker.exists(JAR).get());
+    Assertions.assertNull(checker.checksum(JAR).get());
+  }
+
+  @Test
+  void installedAndSnapshotsAskRemote(@TempDir Path tmp) throws Exception {
+    Path local = tmp.resolve("local");
+    resolve(local, JAR, "");
+    String snapshot = "org/example/lib/2.0-SNAPSHOT/lib-2.0-SNAPSHOT.jar";
+    resolve(local, snapshot, "releases");
+
+    Assertions.assertFalse(new TieredChecker(local, "", null).isTracked(JAR));
+    Assertions.assertFalse(new TieredChecker(local, "releases", null).isTracked(snapshot));
+  }
+}
@@ -0,0 +1,41 @@
+package org.honton.chas.exists;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class VersionFinderTest {
+
+  @Test
+  void startingVersion() {
+    VersionFinder finder = new VersionFinder("1.4.0-SNAPSHOT");
+    Assertions.assertEquals("1.4.0", finder.next(List.of()));
+    Assertions.assertEquals("1.4.0", finder.next(List.of("1.3.9", "1.5.0", "1.4.0-rc1")));
+    Assertions.assertEquals("1.4.11", finder.next(List.of("1.4.0", "1.4.10", "1.4.2")));
+  }
+
+  @Test
+  void startAboveDeployed() {
+    Assertions.assertEquals("2.0.5", new VersionFinder("2.0.5").next(List.of("2.0.0", "2.0.1")));
+  }
+
+  @Test
+  void pattern() {
+    VersionFinder finder = new VersionFinder("1.4.*-java11");
+    Assertions.assertEquals("1.4.0-java11", finder.next(List.of("1.4.3")));
+    Assertions.assertEquals(
+        "1.4.4-java11", finder.next(List.of("1.4.3-java11", "1.4.x-java11", "1.4.3")));
+  }
+
+  @Test
+  void qualifierIsKept() {
+    VersionFinder finder = new VersionFinder("3.1-java11");
+    Assertions.assertEquals("3.2-java11", finder.next(List.of("3.1-java11", "3.7")));
+  }
+
+  @Test
+  void noNumber() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new VersionFinder("latest"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new VersionFinder("1.*.*"));
+  }
+}
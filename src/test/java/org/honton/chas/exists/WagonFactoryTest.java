@@ -0,0 +1,105 @@
+package org.honton.chas.exists;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
+import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
+
+class WagonFactoryTest {
+
+  private final AtomicInteger decryptions = new AtomicInteger();
+
+  private final SecDispatcher countingDispatcher =
+      new SecDispatcher() {
+        @Override
+        public String decrypt(String str) throws SecDispatcherException {
+          decryptions.incrementAndGet();
+          return "decrypted-" + str;
+        }
+      };
+
+  private static Settings settings() {
+    Server server = new Server();
+    server.setId("nexus");
+    server.setUsername("deployer");
+    server.setPassword("{encrypted}");
+
+    Proxy proxy = new Proxy();
+    proxy.setHost("proxy.example.com");
+    proxy.setPort(3128);
+
+    Settings settings = new Settings();
+    settings.addServer(server);
+    settings.addProxy(proxy);
+    return settings;
+  }
+
+  @Test
+  void decryptsOncePerServer() throws SecDispatcherException {
+    WagonFactory factory = new WagonFactory(settings(), countingDispatcher, null, null);
+
+    AuthenticationInfo first = factory.getAuthenticationInfo("nexus");
+    Assertions.assertEquals("deployer", first.getUserName());
+    Assertions.assertEquals("decrypted-{encrypted}", first.getPassword());
+    Assertions.assertSame(first, factory.getAuthenticationInfo("nexus"));
+    Assertions.assertEquals(1, decryptions.get());
+  }
+
+  @Test
+  void unknownServer() throws SecDispatcherException {
+    WagonFactory factory = new WagonFactory(settings(), countingDispatcher, null, null);
+    Assertions.assertNull(factory.getAuthenticationInfo("other"));
+    Assertions.assertNull(factory.getAuthenticationInfo("other"));
+    Assertions.assertEquals(0, decryptions.get());
+  }
+
+  @Test
+  void proxy() {
+    WagonFactory factory = new WagonFactory(settings(), countingDispatcher, null, null);
+    Assertions.assertEquals("proxy.example.com", factory.getProxyInfo().getHost());
+    Assertions.assertEquals(3128, factory.getProxyInfo().getPort());
+  }
+
+  @Test
+  void fingerprintFollowsSettings() {
+    Settings settings = settings();
+    String fingerprint =
+        new WagonFactory(settings, countingDispatcher, null, null).fingerprint("nexus");
+    Assertions.assertEquals(
+        fingerprint,
+        new WagonFactory(settings(), countingDispatcher, null, null).fingerprint("nexus"));
+
+    settings.getServer("nexus").setPassword("{rotated}");
+    Assertions.assertNotEquals(
+        fingerprint,
+        new WagonFactory(settings, countingDispatcher, null, null).fingerprint("nexus"));
+  }
+
+  @Test
+  void httpHeaders() {
+    Xpp3Dom name = new Xpp3Dom("name");
+    name.setValue("Job-Token");
+    Xpp3Dom value = new Xpp3Dom("value");
+    value.setValue("token");
+    Xpp3Dom property = new Xpp3Dom("property");
+    property.addChild(name);
+    property.addChild(value);
+    Xpp3Dom httpHeaders = new Xpp3Dom("httpHeaders");
+    httpHeaders.addChild(property);
+    Xpp3Dom configuration = new Xpp3Dom("configuration");
+    configuration.addChild(httpHeaders);
+    Settings settings = settings();
+    settings.getServer("nexus").setConfiguration(configuration);
+
+    WagonFactory factory = new WagonFactory(settings, countingDispatcher, null, null);
+    Assertions.assertEquals(List.of("Job-Token", "token"), factory.getHttpHeaders("nexus"));
+    Assertions.assertEquals(List.of(), factory.getHttpHeaders("other"));
+  }
+}